@@ -2,6 +2,7 @@ package digital.slovensko.autogram.core;
 
 import digital.slovensko.autogram.ui.cli.CliApp;
 import digital.slovensko.autogram.ui.gui.GUIApp;
+import digital.slovensko.autogram.util.FileBackedContainerHandler;
 import javafx.application.Application;
 import org.apache.commons.cli.*;
 
@@ -15,18 +16,31 @@ public class AppStarter {
         ).
         addOption("h", "help", false, "Print this command line help.").
         addOption("u", "usage", false, "Print usage examples.").
-        addOption("s", "source", true, "Source file or directory of files to sign.").
-        addOption("t", "target", true, "Target file or directory for signed files. Type (file/directory) must match the source.").
+        addOption("s", "source", true, "Source file or directory of files to sign or validate.").
+        addOption("t", "target", true, "Target file or directory for signed files. Type (file/directory) must match the source. With --validate, file for validation results.").
         addOption("f", "force", false, "Overwrite existing file(s).").
         addOption(null, "pdfa", false, "Check PDF/A compliance before signing.").
         addOption(null, "parents", false, "Create all parent directories for target if needed.").
+        addOption("r", "recursive", false, "Sign files in subdirectories of source directory as well. Signed files are saved in the same subdirectories of target directory.").
         addOption("d", "driver", true, "PCKS driver name for signing. Supported values: eid, secure_store, monet, gemalto, keystore.").
         addOption(null, "keystore", true, "Absolute path to a keystore file that can be used for signing.").
         addOption(null, "slot-id", true, "Slot ID for PKCS11 driver. If not specified, first available slot is used.").
+        addOption(null, "slot-ids", true, "Comma separated slot IDs of tokens with the same certificate. Signatures are spread across all of them, one at a time on each.").
+        addOption(null, "jobs", true, "Number of files signed or validated in parallel. Keys on cards sign one file at a time, other files are read and saved meanwhile. Default is 1.").
         addOption(null, "pdf-level", true, "PDF signature level. Supported values: PAdES_BASELINE_B (default), XAdES_BASELINE_B, CAdES_BASELINE_B.").
-        addOption(null, "en319132", false, "Sign according to EN 319 132 or EN 319 122.");
+        addOption(null, "en319132", false, "Sign according to EN 319 132 or EN 319 122.").
+        addOption(null, "warm-up", false, "Sign and validate sample documents in background after start to make the first real signing faster.").
+        addOption(null, "container", false, "Sign all files from source directory into a single ASiC-E container with one signature.").
+        addOption(null, "container-level", true, "Container signature level. Supported values: XAdES_BASELINE_B (default), CAdES_BASELINE_B.").
+        addOption(null, "validate", false, "Validate signatures of source file or all files in source directory and its subdirectories instead of signing.").
+        addOption(null, "format", true, "Format of validation results, one line per file. Supported values: json (default), csv.").
+        addOption(null, "resume", false, "Continue interrupted signing or validation, files already signed or present in target are skipped.").
+        addOption(null, "retry-failed", false, "Continue interrupted signing, only files that failed are signed again.").
+        addOption(null, "refresh-trusted-lists", false, "Download all trusted lists again before validation, instead of using the ones cached in last 6 hours.");
 
     public static void start(String[] args) {
+        FileBackedContainerHandler.install();
+
         try {
             CommandLine cmd = new DefaultParser().parse(options, args);
 
@@ -56,6 +70,14 @@ public class AppStarter {
 
                 If --force is enabled, the target will be overwritten if it already exists.
 
+                If --recursive is enabled, files in all subdirectories of the source directory are signed as well and the directory tree is mirrored in the target directory. For example, "directory/a/file.pdf" is saved as "directory_signed/a/file_signed.pdf". The target directory is skipped when it is inside the source directory.
+
+                When a source directory is signed, a journal with one line per signed or failed file is written next to the target directory, for example "directory_signed.journal". If --resume is enabled, the target directory of the interrupted run is used again, files signed in it which did not change since are skipped and other targets are overwritten. Without a target, it is the generated target directory whose journal was written last. A single source file is not resumed, its existing target is never overwritten. If --retry-failed is enabled, only files that failed in the interrupted run are signed again.
+
+                If --container is enabled, all files from the source directory are signed at once into a single ASiC-E container. The container is saved as a file, so the target must be a file as well. If no target is specified, the container is saved next to the source directory with the suffix "_signed", for example "directory_signed.asice".
+
+                If --validate is enabled, files are not signed. Signatures of the source file, or of all files in the source directory and its subdirectories, are validated and one result line per file is written to the target file, or to the standard output if no target is specified. Each line contains the file path relative to the source directory, the number of signatures, indication and sub-indication of the worst signature and signers. Progress is printed every 10 seconds. If --resume is enabled, files already present in the target are skipped and new results are appended to it.
+
                 If target is specified with missing parent directories, they are created onyl if --parents is enabled. Otherwise, the signing fails. For example, if the source is "file.pdf" and the target is "target/file_signed.pdf", the target directory "target" must exist. If it does not exist, the signing fails. If --parents is enabled, the target directory "target" is created if it does not exist.
                 """;
 
@@ -70,9 +92,16 @@ public class AppStarter {
                 autogram --cli [options]
                 autogram --cli -s target/directory-example/file-example.pdf -t target/output-example/out-example.pdf
                 autogram --cli -s target/directory-example -t target/output-example -f
+                autogram --cli -s target/directory-example -t target/output-example --recursive
                 autogram --cli -s target/directory-example -t target/non-existent-dir/output-example --parents
                 autogram --cli -s target/directory-example/file-example.pdf -pdfa
                 autogram --cli -s target/directory-example/file-example.pdf -d eid
+                autogram --cli -s target/directory-example -t target/output-example/container.asice --container
+                autogram --cli -s target/directory-example -d eid --slot-ids 0,1,2
+                autogram --cli -s target/directory-example -d keystore --keystore /path/to/keystore.p12 --jobs 8
+                autogram --cli -s target/directory-example -t target/output-example --recursive --resume
+                autogram --cli -s target/archive --validate -t target/validation.csv --format csv --jobs 8
+                autogram --cli -s target/archive --validate -t target/validation.csv --format csv --jobs 8 --resume
                 """;
         final PrintWriter pw = new PrintWriter(System.out);
         formatter.printUsage(pw, 80, syntax);
@@ -10,13 +10,16 @@ import digital.slovensko.autogram.core.visualization.UnsupportedVisualization;
 import digital.slovensko.autogram.drivers.TokenDriver;
 import digital.slovensko.autogram.ui.BatchUiResult;
 import digital.slovensko.autogram.ui.UI;
+import digital.slovensko.autogram.util.Logging;
 import digital.slovensko.autogram.util.PDFUtils;
 import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.pdfa.PDFAStructureValidator;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 
@@ -27,6 +30,10 @@ public class Autogram {
     private final DriverDetector driverDetector;
     private final boolean shouldDisplayVisualizationError;
     private final Integer slotId;
+    private final TokenSessionManager tokenSessions = new TokenSessionManager();
+    /** Signs batch jobs in parallel for keys supporting it, null when signing one job at a time */
+    private ExecutorService signingExecutor = null;
+    private int signingThreads = 1;
 
     public Autogram(UI ui, boolean shouldDisplayVisualizationError , DriverDetector driverDetector) {
         this(ui, shouldDisplayVisualizationError, driverDetector, -1);
@@ -45,20 +52,14 @@ public class Autogram {
     }
 
     public void checkAndValidateSignatures(SigningJob job) {
-        checkSignatures(job);
-
-        var reports = SignatureValidator.getInstance().getSignatureValidationReport(job);
+        var reports = SignatureValidator.getInstance().getSignatureValidationReport(job,
+                checkReports -> ui.onUIThreadDo(() -> ui.onSignatureCheckCompleted(checkReports)));
         if (!reports.haveSignatures())
             return;
 
         ui.onUIThreadDo(() -> ui.onSignatureValidationCompleted(reports));
     }
 
-    private void checkSignatures(SigningJob job) {
-        var reports = SignatureValidator.getSignatureCheckReport(job);
-        ui.onUIThreadDo(() -> ui.onSignatureCheckCompleted(reports));
-    }
-
     public void checkPDFACompliance(SigningJob job) {
         if (!job.shouldCheckPDFCompliance())
             return;
@@ -144,11 +145,40 @@ public class Autogram {
 
         batch.addJob(batchId);
 
+        var key = batch.getSigningKey();
+        // under the lock the executor cannot be shut down between reading and using it
+        synchronized (this) {
+            if (signingExecutor != null && key.supportsConcurrentSigning()) {
+                signingExecutor.execute(() -> ui.signBatch(job, key));
+                return;
+            }
+        }
+
         ui.onWorkThreadDo(() -> {
-            ui.signBatch(job, batch.getSigningKey());
+            ui.signBatch(job, key);
         });
     }
 
+    /**
+     * Number of batch jobs signed at once with keys supporting concurrent signing. Jobs already
+     * queued in the previous executor are still signed by it, only new jobs use the new one.
+     */
+    public synchronized void setSigningParallelism(int threads) {
+        if (threads == signingThreads)
+            return;
+
+        signingThreads = threads;
+        // shutdown only stops accepting jobs, the queued ones are signed before its threads end
+        if (signingExecutor != null)
+            signingExecutor.shutdown();
+
+        signingExecutor = threads > 1 ? Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "autogram-signing");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
     /**
      * End the batch
      *
@@ -176,8 +206,90 @@ public class Autogram {
     }
 
     public void requestPasswordAndThen(TokenDriver driver, Consumer<SigningKey> callback) {
-        ui.requestPasswordAndThen(driver, (password) -> ui.onWorkThreadDo(
-                () -> fetchKeysAndThen(driver, password, callback)));
+        if (!driver.keepsSessionOpen()) {
+            ui.requestPasswordAndThen(driver, (password) -> ui.onWorkThreadDo(
+                    () -> fetchKeysAndThen(driver, password, callback)));
+            return;
+        }
+
+        ui.onWorkThreadDo(() -> {
+            var session = tokenSessions.getHealthySession(driver, slotId);
+            if (session != null) {
+                fetchSessionKeysAndThen(session, callback);
+                return;
+            }
+
+            ui.onUIThreadDo(() -> ui.requestPasswordAndThen(driver, (password) -> ui.onWorkThreadDo(
+                    () -> openSessionAndThen(driver, password, callback))));
+        });
+    }
+
+    private void openSessionAndThen(TokenDriver driver, char[] password, Consumer<SigningKey> callback) {
+        try {
+            fetchSessionKeysAndThen(tokenSessions.openSession(driver, slotId, password), callback);
+        } catch (DSSException e) {
+            ui.onUIThreadDo(() -> ui.onPickSigningKeyFailed(AutogramException.createFromDSSException(e)));
+        }
+    }
+
+    private void fetchSessionKeysAndThen(TokenSession session, Consumer<SigningKey> callback) {
+        try {
+            var keys = session.getKeys();
+
+            ui.onUIThreadDo(
+                    () -> ui.pickKeyAndThen(keys, (privateKey) -> callback.accept(new SigningKey(session, privateKey))));
+        } catch (DSSException e) {
+            ui.onUIThreadDo(() -> ui.onPickSigningKeyFailed(AutogramException.createFromDSSException(e)));
+        }
+    }
+
+    /**
+     * Picks a key on the first slot and builds a pool from all slots holding the same certificate.
+     * All slots share the driver and the security code.
+     */
+    public void pickSigningKeyPoolAndThen(List<Integer> slotIds, Consumer<SigningKey> callback) {
+        var drivers = driverDetector.getAvailableDrivers();
+        ui.pickTokenDriverAndThen(drivers, (driver) -> ui.requestPasswordAndThen(driver, (password) -> ui.onWorkThreadDo(
+                () -> fetchKeyPoolAndThen(driver, password, slotIds, callback))));
+    }
+
+    private void fetchKeyPoolAndThen(TokenDriver driver, char[] password, List<Integer> slotIds, Consumer<SigningKey> callback) {
+        try {
+            var sessions = new ArrayList<TokenSession>();
+            for (var poolSlotId : slotIds)
+                sessions.add(tokenSessions.openSession(driver, poolSlotId, password));
+
+            var keys = sessions.get(0).getKeys();
+            ui.onUIThreadDo(() -> ui.pickKeyAndThen(keys, (privateKey) -> {
+                var poolKeys = new ArrayList<SigningKey>();
+                for (var session : sessions) {
+                    session.getKeys().stream()
+                            .filter(k -> k.getCertificate().equals(privateKey.getCertificate()))
+                            .findFirst()
+                            .ifPresentOrElse(k -> poolKeys.add(new SigningKey(session, k)),
+                                    () -> Logging.log("Slot " + session.getSlotId() + " does not hold the picked certificate"));
+                }
+
+                callback.accept(new SigningKeyPool(poolKeys));
+            }));
+        } catch (DSSException e) {
+            ui.onUIThreadDo(() -> ui.onPickSigningKeyFailed(AutogramException.createFromDSSException(e)));
+        }
+    }
+
+    public TokenSessionManager.Metrics getTokenSessionMetrics() {
+        return tokenSessions.getMetrics();
+    }
+
+    public void closeTokenSessions() {
+        tokenSessions.closeAll();
+    }
+
+    public synchronized void shutdownSigningExecutor() {
+        if (signingExecutor != null)
+            signingExecutor.shutdown();
+
+        signingExecutor = null;
     }
 
     private void fetchKeysAndThen(TokenDriver driver, char[] password, Consumer<SigningKey> callback) {
@@ -225,7 +337,6 @@ public class Autogram {
             SignatureValidator.getInstance().initialize(cachedExecutorService, tlCountries);
         });
 
-        scheduledExecutorService.scheduleAtFixedRate(() -> SignatureValidator.getInstance().refresh(),
-            480, 480, java.util.concurrent.TimeUnit.MINUTES);
+        SignatureValidator.getInstance().getTrustedListsRefresher().schedule(scheduledExecutorService);
     }
 }
@@ -41,7 +41,7 @@ public class Batch {
         signingKey = key;
     }
 
-    public void addJob(String batchId) {
+    public synchronized void addJob(String batchId) {
         validate(batchId);
 
         if (this.totalNumberOfDocuments <= this.addedDocumentsCount)
@@ -50,13 +50,13 @@ public class Batch {
         addedDocumentsCount++;
     }
 
-    public void onJobSuccess() {
+    public synchronized void onJobSuccess() {
         successfulDocumentsCount++;
         Logging.log("Batch " + batchId + " success");
         log();
     }
 
-    public void onJobFailure() {
+    public synchronized void onJobFailure() {
         failedDocumentsCount++;
         Logging.log("Batch " + batchId + " failed");
         log();
@@ -96,7 +96,7 @@ public class Batch {
         return state == BatchState.ENDED;
     }
 
-    public boolean isAllProcessed() {
+    public synchronized boolean isAllProcessed() {
         return getProcessedDocumentsCount() >= totalNumberOfDocuments;
     }
 
@@ -108,7 +108,7 @@ public class Batch {
         return totalNumberOfDocuments;
     }
 
-    public int getProcessedDocumentsCount(){
+    public synchronized int getProcessedDocumentsCount(){
         return successfulDocumentsCount + failedDocumentsCount;
     }
 
@@ -1,15 +1,21 @@
 package digital.slovensko.autogram.core;
 
+import digital.slovensko.autogram.core.errors.ContainerSignatureLevelIsNotValidException;
+import digital.slovensko.autogram.core.errors.OptionIsNotAPositiveNumberException;
 import digital.slovensko.autogram.core.errors.PDFSignatureLevelIsNotValidException;
 import digital.slovensko.autogram.core.errors.SlotIdIsNotANumberException;
 import digital.slovensko.autogram.core.errors.SourceDoesNotExistException;
 import digital.slovensko.autogram.core.errors.TokenDriverDoesNotExistException;
+import digital.slovensko.autogram.core.errors.ValidationResultFormatIsNotValidException;
 import digital.slovensko.autogram.drivers.TokenDriver;
+import digital.slovensko.autogram.ui.cli.ValidationResultFormat;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 
 import org.apache.commons.cli.CommandLine;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public class CliParameters {
@@ -22,9 +28,21 @@ public class CliParameters {
     private final boolean makeParentDirectories;
     private final SignatureLevel pdfSignatureLevel;
     private final boolean en319132;
+    private final boolean container;
+    private final SignatureLevel containerSignatureLevel;
+    private final List<Integer> poolSlotIds;
+    private final int jobs;
+    private final boolean warmUp;
+    private final boolean validate;
+    private final ValidationResultFormat validationResultFormat;
+    private final boolean resume;
+    private final boolean retryFailed;
+    private final boolean refreshTrustedLists;
+    private final boolean recursive;
 
     public CliParameters(CommandLine cmd) throws SourceDoesNotExistException, TokenDriverDoesNotExistException,
-            SlotIdIsNotANumberException, PDFSignatureLevelIsNotValidException {
+            SlotIdIsNotANumberException, PDFSignatureLevelIsNotValidException,
+            ContainerSignatureLevelIsNotValidException, ValidationResultFormatIsNotValidException {
         source = getValidSource(cmd.getOptionValue("s"));
         target = cmd.getOptionValue("t");
         driver = getValidTokenDriver(cmd.getOptionValue("d"), cmd.getOptionValue("keystore", ""));
@@ -35,6 +53,48 @@ public class CliParameters {
         pdfSignatureLevel = getValidSignatureLevel(
                 cmd.getOptionValue("pdf-level", SignatureLevel.PAdES_BASELINE_B.name()));
         en319132 = cmd.hasOption("en319132");
+        container = cmd.hasOption("container");
+        containerSignatureLevel = getValidContainerSignatureLevel(
+                cmd.getOptionValue("container-level", SignatureLevel.XAdES_BASELINE_B.name()));
+        poolSlotIds = getValidSlotIds(cmd.getOptionValue("slot-ids"));
+        jobs = getValidPositiveNumber("jobs", cmd.getOptionValue("jobs", "1"));
+        warmUp = cmd.hasOption("warm-up");
+        validate = cmd.hasOption("validate");
+        validationResultFormat = ValidationResultFormat.fromName(cmd.getOptionValue("format", "json"));
+        retryFailed = cmd.hasOption("retry-failed");
+        resume = cmd.hasOption("resume") || retryFailed;
+        refreshTrustedLists = cmd.hasOption("refresh-trusted-lists");
+        recursive = cmd.hasOption("recursive");
+    }
+
+    private List<Integer> getValidSlotIds(String optionValue) throws SlotIdIsNotANumberException {
+        if (optionValue == null)
+            return null;
+
+        var slotIds = new ArrayList<Integer>();
+        for (var slotId : optionValue.split(","))
+            slotIds.add(getValidSlotId(slotId.trim()));
+
+        return slotIds;
+    }
+
+    private static int getValidPositiveNumber(String option, String optionValue) throws OptionIsNotAPositiveNumberException {
+        try {
+            var number = Integer.parseInt(optionValue);
+            if (number < 1)
+                throw new OptionIsNotAPositiveNumberException(option, optionValue);
+
+            return number;
+        } catch (NumberFormatException e) {
+            throw new OptionIsNotAPositiveNumberException(option, optionValue);
+        }
+    }
+
+    private SignatureLevel getValidContainerSignatureLevel(String optionValue) throws ContainerSignatureLevelIsNotValidException {
+        if (!optionValue.equals(SignatureLevel.XAdES_BASELINE_B.name()) && !optionValue.equals(SignatureLevel.CAdES_BASELINE_B.name()))
+            throw new ContainerSignatureLevelIsNotValidException(optionValue);
+
+        return SignatureLevel.valueOf(optionValue);
     }
 
     private SignatureLevel getValidSignatureLevel(String optionValue) throws PDFSignatureLevelIsNotValidException {
@@ -118,4 +178,48 @@ public class CliParameters {
     public SignatureLevel pdfSignatureLevel() {
         return pdfSignatureLevel;
     }
+
+    public boolean shouldSignAsContainer() {
+        return container;
+    }
+
+    public SignatureLevel containerSignatureLevel() {
+        return containerSignatureLevel;
+    }
+
+    public List<Integer> getPoolSlotIds() {
+        return poolSlotIds;
+    }
+
+    public int getJobs() {
+        return jobs;
+    }
+
+    public boolean shouldWarmUp() {
+        return warmUp;
+    }
+
+    public boolean shouldValidate() {
+        return validate;
+    }
+
+    public ValidationResultFormat getValidationResultFormat() {
+        return validationResultFormat;
+    }
+
+    public boolean shouldResume() {
+        return resume;
+    }
+
+    public boolean shouldRetryFailedOnly() {
+        return retryFailed;
+    }
+
+    public boolean shouldRefreshTrustedLists() {
+        return refreshTrustedLists;
+    }
+
+    public boolean isRecursive() {
+        return recursive;
+    }
 }
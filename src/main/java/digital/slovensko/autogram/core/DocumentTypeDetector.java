@@ -0,0 +1,119 @@
+package digital.slovensko.autogram.core;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+import eu.europa.esig.dss.asic.common.ASiCUtils;
+import eu.europa.esig.dss.asic.common.ZipUtils;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+
+/**
+ * Detects the type of a document from its first bytes, read once, using the same rules as the DSS
+ * validator factories do in their isSupported checks. XML is additionally stream-parsed up to the
+ * root element, documents with the XML Datacontainer root are detected as XDC without checking them
+ * against its schema, which is enough for routing to validators since they treat XML and XDC the
+ * same. ZIP containers are told apart by the names of their signature entries.
+ */
+public class DocumentTypeDetector {
+    private static final byte[] PDF_PREAMBLE = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZIP_PREAMBLE = { 'P', 'K', 3, 4 };
+    private static final byte[] XML_PREAMBLE = { '<' };
+    private static final byte[] XML_WITH_BOM_PREAMBLE = { (byte) 0xef, (byte) 0xbb, (byte) 0xbf, '<' };
+    private static final byte ASN1_SEQUENCE_TAG = 0x30;
+    private static final int PREAMBLE_LENGTH = 8;
+
+    private static final String XDC_NAMESPACE = "http://data.gov.sk/def/container/xmldatacontainer+xml/1.1";
+    private static final String XDC_ROOT_ELEMENT = "XMLDataContainer";
+
+    public enum DocumentType {
+        PDF,
+        XML,
+        XDC,
+        ASIC_WITH_XADES,
+        ASIC_WITH_CADES,
+        CMS,
+        UNKNOWN
+    }
+
+    private DocumentTypeDetector() {
+    }
+
+    public static DocumentType detect(DSSDocument document) {
+        try (var stream = new BufferedInputStream(document.openStream())) {
+            stream.mark(PREAMBLE_LENGTH);
+            var preamble = stream.readNBytes(PREAMBLE_LENGTH);
+            stream.reset();
+
+            if (startsWith(preamble, PDF_PREAMBLE))
+                return DocumentType.PDF;
+
+            if (startsWith(preamble, XML_PREAMBLE) || startsWith(preamble, XML_WITH_BOM_PREAMBLE))
+                return isXDCRoot(stream) ? DocumentType.XDC : DocumentType.XML;
+
+            if (startsWith(preamble, ZIP_PREAMBLE))
+                return ASiCUtils.isASiCWithCAdES(getEntryNames(document)) ? DocumentType.ASIC_WITH_CADES
+                        : DocumentType.ASIC_WITH_XADES;
+
+            if (preamble.length > 0 && preamble[0] == ASN1_SEQUENCE_TAG)
+                return DocumentType.CMS;
+
+            return DocumentType.UNKNOWN;
+
+        } catch (IOException e) {
+            return DocumentType.UNKNOWN;
+        }
+    }
+
+    private static boolean isXDCRoot(InputStream stream) {
+        var factory = XMLInputFactory.newDefaultFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try {
+            var reader = factory.createXMLStreamReader(stream);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT)
+                        return XDC_NAMESPACE.equals(reader.getNamespaceURI())
+                                && XDC_ROOT_ELEMENT.equals(reader.getLocalName());
+                }
+
+                return false;
+
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // malformed XML is still routed to the XML validator, which reports the error
+            return false;
+        }
+    }
+
+    private static List<String> getEntryNames(DSSDocument document) {
+        if (document instanceof FileDocument fileDocument) {
+            // central directory only, without inflating the entries
+            try (var zip = new ZipFile(fileDocument.getFile())) {
+                return zip.stream().map(ZipEntry::getName).toList();
+            } catch (IOException e) {
+                // leave damaged containers to DSS, same as before
+            }
+        }
+
+        return ZipUtils.getInstance().extractEntryNames(document);
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        return data.length >= prefix.length && Arrays.equals(data, 0, prefix.length, prefix, 0, prefix.length);
+    }
+}
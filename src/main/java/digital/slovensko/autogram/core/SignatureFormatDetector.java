@@ -0,0 +1,198 @@
+package digital.slovensko.autogram.core;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedDataParser;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+
+/**
+ * Detects whether a document is already signed and in which format, from its structure only,
+ * without validating the signatures. The result is the base level of the first signature format
+ * found, as DSS would report it for a B-level signature, or null when there is no signature. T, LT
+ * and LTA signatures are reported with the B level too, so new signatures follow the format of the
+ * existing ones whatever their level.
+ *
+ * The document type comes from DocumentTypeDetector. PDF is then scanned for signature
+ * dictionaries (/ByteRange with /SubFilter), ZIP containers are recognized by ASiC signature entries
+ * in the central directory, XML is stream-parsed until the first ds:Signature and CMS is
+ * stream-parsed for the signed attributes of its signers.
+ */
+public class SignatureFormatDetector {
+    private static final String XMLDSIG_NAMESPACE = "http://www.w3.org/2000/09/xmldsig#";
+    private static final String XADES_NAMESPACE = "http://uri.etsi.org/01903/v1.3.2#";
+
+    private static final int PDF_BUFFER_SIZE = 64 * 1024;
+    private static final int PDF_OVERLAP = 256;
+    private static final Pattern PDF_SUB_FILTER = Pattern.compile("/SubFilter\\s*/([A-Za-z0-9.#_-]+)");
+
+    private SignatureFormatDetector() {
+    }
+
+    public static SignatureLevel detect(DSSDocument document) {
+        try {
+            return switch (DocumentTypeDetector.detect(document)) {
+                case PDF -> detectPDF(document);
+                case ASIC_WITH_XADES, ASIC_WITH_CADES -> detectASiC(document);
+                case XML, XDC -> detectXML(document);
+                case CMS -> detectCMS(document);
+                case UNKNOWN -> null;
+            };
+
+        } catch (IOException | XMLStreamException | CMSException | OperatorCreationException | RuntimeException e) {
+            // malformed documents are not signed as far as the choice of signing parameters goes
+            return null;
+        }
+    }
+
+    private static SignatureLevel detectPDF(DSSDocument document) throws IOException {
+        var subFilters = new HashSet<String>();
+        var hasByteRange = false;
+
+        try (var stream = document.openStream()) {
+            var buffer = new byte[PDF_BUFFER_SIZE];
+            var tail = "";
+            int read;
+            while ((read = stream.readNBytes(buffer, 0, buffer.length)) > 0) {
+                var chunk = tail + new String(buffer, 0, read, StandardCharsets.ISO_8859_1);
+                hasByteRange |= chunk.contains("/ByteRange");
+
+                var matcher = PDF_SUB_FILTER.matcher(chunk);
+                while (matcher.find())
+                    subFilters.add(matcher.group(1));
+
+                if (hasByteRange && subFilters.contains("ETSI.CAdES.detached"))
+                    break;
+
+                tail = chunk.substring(Math.max(0, chunk.length() - PDF_OVERLAP));
+            }
+        }
+
+        if (!hasByteRange)
+            return null;
+
+        if (subFilters.contains("ETSI.CAdES.detached"))
+            return SignatureLevel.PAdES_BASELINE_B;
+
+        if (subFilters.contains("adbe.pkcs7.detached") || subFilters.contains("adbe.pkcs7.sha1"))
+            return SignatureLevel.PKCS7_B;
+
+        if (subFilters.contains("adbe.x509.rsa_sha1"))
+            return SignatureLevel.PDF_NOT_ETSI;
+
+        // only document timestamps (ETSI.RFC3161)
+        return null;
+    }
+
+    private static SignatureLevel detectASiC(DSSDocument document) throws IOException {
+        if (document instanceof FileDocument fileDocument) {
+            try (var zip = new ZipFile(fileDocument.getFile())) {
+                return zip.stream().map(entry -> getASiCSignatureLevel(entry.getName()))
+                        .filter(level -> level != null).findFirst().orElse(null);
+            }
+        }
+
+        try (var zip = new ZipInputStream(document.openStream())) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                var level = getASiCSignatureLevel(entry.getName());
+                if (level != null)
+                    return level;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Same naming rules as DSS uses for signature entries of ASiC containers
+     */
+    private static SignatureLevel getASiCSignatureLevel(String entryName) {
+        if (!entryName.startsWith("META-INF/") || !entryName.toLowerCase(Locale.ROOT).contains("signature"))
+            return null;
+
+        if (entryName.endsWith(".xml"))
+            return SignatureLevel.XAdES_BASELINE_B;
+
+        if (entryName.endsWith(".p7s"))
+            return SignatureLevel.CAdES_BASELINE_B;
+
+        return null;
+    }
+
+    private static SignatureLevel detectXML(DSSDocument document) throws IOException, XMLStreamException {
+        var factory = XMLInputFactory.newDefaultFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try (var stream = document.openStream()) {
+            var reader = factory.createXMLStreamReader(stream);
+            try {
+                var signatureDepth = -1;
+                var depth = 0;
+                while (reader.hasNext()) {
+                    var event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (signatureDepth < 0 && isElement(reader.getNamespaceURI(), reader.getLocalName(), XMLDSIG_NAMESPACE, "Signature"))
+                            signatureDepth = depth;
+                        else if (signatureDepth > 0 && isElement(reader.getNamespaceURI(), reader.getLocalName(), XADES_NAMESPACE, "QualifyingProperties"))
+                            return SignatureLevel.XAdES_BASELINE_B;
+
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth == signatureDepth)
+                            return SignatureLevel.XML_NOT_ETSI;
+
+                        depth--;
+                    }
+                }
+
+                return null;
+
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static SignatureLevel detectCMS(DSSDocument document) throws IOException, CMSException, OperatorCreationException {
+        try (var stream = new BufferedInputStream(document.openStream())) {
+            var parser = new CMSSignedDataParser(new JcaDigestCalculatorProviderBuilder().build(), stream);
+            if (parser.getSignedContent() != null)
+                parser.getSignedContent().drain();
+
+            var signers = parser.getSignerInfos().getSigners();
+            if (signers.isEmpty())
+                return null;
+
+            for (var signer : signers) {
+                var attributes = signer.getSignedAttributes();
+                if (attributes != null && (attributes.get(PKCSObjectIdentifiers.id_aa_signingCertificateV2) != null
+                        || attributes.get(PKCSObjectIdentifiers.id_aa_signingCertificate) != null))
+                    return SignatureLevel.CAdES_BASELINE_B;
+            }
+
+            return SignatureLevel.CMS_NOT_ETSI;
+        }
+    }
+
+    private static boolean isElement(String namespace, String localName, String expectedNamespace, String expectedLocalName) {
+        return expectedNamespace.equals(namespace) && expectedLocalName.equals(localName);
+    }
+}
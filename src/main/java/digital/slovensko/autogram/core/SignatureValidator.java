@@ -1,37 +1,57 @@
 package digital.slovensko.autogram.core;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
-import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import digital.slovensko.autogram.util.XMLUtils;
+import digital.slovensko.autogram.core.revocation.CachingAIASource;
+import digital.slovensko.autogram.core.revocation.CachingCRLSource;
+import digital.slovensko.autogram.core.revocation.CachingDataLoader;
+import digital.slovensko.autogram.core.revocation.RevocationCache;
+import digital.slovensko.autogram.core.revocation.RevocationPrefetcher;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.DSSException;
-import eu.europa.esig.dss.service.crl.OnlineCRLSource;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.policy.ValidationPolicy;
+import eu.europa.esig.dss.policy.ValidationPolicyFacade;
 import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
 import eu.europa.esig.dss.service.http.commons.FileCacheDataLoader;
 import eu.europa.esig.dss.service.ocsp.OnlineOCSPSource;
+import eu.europa.esig.dss.spi.tsl.TLInfo;
+import eu.europa.esig.dss.spi.tsl.TLValidationJobSummary;
 import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
 import eu.europa.esig.dss.spi.x509.CertificateSource;
 import eu.europa.esig.dss.spi.x509.KeyStoreCertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.MultipleRevocationSource;
+import eu.europa.esig.dss.tsl.cache.CacheCleaner;
 import eu.europa.esig.dss.tsl.function.OfficialJournalSchemeInformationURI;
+import eu.europa.esig.dss.tsl.function.SchemeTerritoryOtherTSLPointer;
 import eu.europa.esig.dss.tsl.function.TLPredicateFactory;
 import eu.europa.esig.dss.tsl.job.TLValidationJob;
 import eu.europa.esig.dss.tsl.source.LOTLSource;
@@ -46,10 +66,47 @@ import static digital.slovensko.autogram.util.DSSUtils.*;
 public class SignatureValidator {
     private static final String LOTL_URL = "https://ec.europa.eu/tools/lotl/eu-lotl.xml";
     private static final String OJ_URL = "https://eur-lex.europa.eu/legal-content/EN/TXT/?uri=uriserv:OJ.C_.2019.276.01.0001.01.ENG";
-    private CertificateVerifier verifier;
-    private TLValidationJob validationJob;
+    private static final int VALIDATION_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int VALIDATION_QUEUE_SIZE = 64;
+    private static final int MAX_LOADED_TLS = 8;
+    private static final int MAX_CACHED_REPORTS = 32;
+    private static final int REVOCATION_THREADS = 8;
     private static Logger logger = LoggerFactory.getLogger(SignatureValidator.class);
 
+    /**
+     * Trusted sources and verifiers used by validations, the crypto verifier has the same trusted
+     * sources but no revocation sources. A snapshot is never modified after it is published,
+     * refresh builds a new one and swaps it in, so validations never wait for a refresh. The
+     * version identifies the snapshot in cached validation results, sequence numbers of its TLs
+     * tell which of them changed with the next refresh.
+     */
+    private record Snapshot(CertificateVerifier verifier, CertificateVerifier cryptoVerifier, int processedLOTLs,
+            long version, Map<String, Integer> tlSequenceNumbers) {
+        CertificateVerifier getVerifier(ValidationProfile profile) {
+            return profile.checksRevocation() ? verifier : cryptoVerifier;
+        }
+    }
+
+    private final CachingAIASource aiaSource = CachingAIASource.createDefault();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(
+            new Snapshot(createCertificateVerifier(), createCertificateVerifier(), 0, 0, Map.of()));
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private ExecutorService trustedListsLoader;
+    private volatile CountDownLatch initialized = new CountDownLatch(0);
+    private final RevocationCache revocationCache = RevocationCache.createDefault();
+    private final CachingCRLSource crlSource = new CachingCRLSource(CachingDataLoader.forCRL(revocationCache));
+    private final OnlineOCSPSource ocspSource = new OnlineOCSPSource(CachingDataLoader.forOCSP(revocationCache));
+    private final RevocationPrefetcher revocationPrefetcher = new RevocationPrefetcher(ocspSource, crlSource,
+            createRevocationPool());
+    private final ValidationResultCache validationResultCache = new ValidationResultCache(MAX_CACHED_REPORTS);
+    private final TrustedListsRefresher trustedListsRefresher = new TrustedListsRefresher(this::refreshTrustedLists);
+    private String validationPolicyPath = "";
+    private volatile ValidationPolicy validationPolicy;
+    private TrustedListsSnapshot trustedListsSnapshot;
+    private TrustedListCountries tlCountries;
+    private TLValidationJob validationJob;
+    private ThreadPoolExecutor validationPool;
+
     // Singleton
     private static SignatureValidator instance;
 
@@ -63,56 +120,434 @@ public class SignatureValidator {
         return instance;
     }
 
-    public synchronized Reports validate(SignedDocumentValidator docValidator) {
-        docValidator.setCertificateVerifier(verifier);
+    public Reports validate(SignedDocumentValidator docValidator) {
+        return validate(docValidator, ValidationProfile.FULL);
+    }
+
+    public Reports validate(SignedDocumentValidator docValidator, ValidationProfile profile) {
+        docValidator.setValidationLevel(profile.getValidationLevel());
+        docValidator.setEnableEtsiValidationReport(profile.generatesEtsiValidationReport());
+        docValidator.setSkipValidationContextExecution(!profile.buildsCertificateChains());
+        if (!profile.buildsCertificateChains()) {
+            docValidator.setCertificateVerifier(createCertificateVerifier());
+            return docValidator.validateDocument(getValidationPolicy());
+        }
+
+        docValidator.setCertificateVerifier(getSnapshot().getVerifier(profile));
+        var certificates = getCertificates(docValidator);
+        if (loadTrustedListsFor(certificates))
+            docValidator.setCertificateVerifier(getSnapshot().getVerifier(profile));
+
+        if (profile.checksRevocation() && !revocationCache.isOfflineOnly())
+            revocationPrefetcher.prefetch(certificates, getEmbeddedRevocationSources(docValidator),
+                    getSnapshot().verifier());
 
         // TODO: do not print stack trace inside DSS
-        return docValidator.validateDocument();
+        return docValidator.validateDocument(getValidationPolicy());
     }
 
-    public synchronized void refresh() {
-        validationJob.offlineRefresh();
+    /**
+     * Validates the document in the bounded validation pool. When the queue of the pool is full,
+     * validation runs on the calling thread, which slows down the producer instead of queueing more
+     * documents in memory.
+     */
+    public CompletableFuture<Reports> validateInBackground(DSSDocument document, ValidationProfile profile) {
+        return CompletableFuture.supplyAsync(() -> validate(document, profile), getValidationPool());
     }
 
-    public synchronized void initialize(ExecutorService executorService, List<String> tlCountries) {
-        SimpleDateFormat formatter = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-        logger.debug("Initializing signature validator at {}", formatter.format(new Date()));
+    /**
+     * Certificates of all signatures and their timestamps, parsed signatures are kept by the
+     * validator for validateDocument().
+     */
+    private static List<CertificateToken> getCertificates(SignedDocumentValidator docValidator) {
+        var certificates = new ArrayList<CertificateToken>();
+        try {
+            for (var signature : docValidator.getSignatures()) {
+                certificates.addAll(signature.getCertificates());
+                for (var timestamp : signature.getAllTimestamps())
+                    certificates.addAll(timestamp.getCertificates());
+            }
+        } catch (DSSException e) {
+            // the validation reports the malformed signature
+        }
 
-        validationJob = new TLValidationJob();
+        return certificates;
+    }
 
-        var lotlSource = new LOTLSource();
-        lotlSource.setCertificateSource(getJournalCertificateSource());
-        lotlSource.setSigningCertificatesAnnouncementPredicate(new OfficialJournalSchemeInformationURI(OJ_URL));
-        lotlSource.setUrl(LOTL_URL);
-        lotlSource.setPivotSupport(true);
-        lotlSource.setTlPredicate(TLPredicateFactory.createEUTLCountryCodePredicate(tlCountries.toArray(new String[0])));
+    /**
+     * Revocation data embedded in the signatures and their timestamps, e.g. of LT and LTA levels.
+     */
+    private static List<MultipleRevocationSource<?>> getEmbeddedRevocationSources(SignedDocumentValidator docValidator) {
+        var sources = new ArrayList<MultipleRevocationSource<?>>();
+        try {
+            for (var signature : docValidator.getSignatures()) {
+                sources.add(signature.getCompleteOCSPSource());
+                sources.add(signature.getCompleteCRLSource());
+            }
+        } catch (DSSException e) {
+            // the validation reports the malformed signature
+        }
 
-        var offlineFileLoader = new FileCacheDataLoader();
-        offlineFileLoader.setCacheExpirationTime(21600000);
-        offlineFileLoader.setDataLoader(new CommonsDataLoader());
-        validationJob.setOfflineDataLoader(offlineFileLoader);
+        return sources;
+    }
 
-        var onlineFileLoader = new FileCacheDataLoader();
-        onlineFileLoader.setCacheExpirationTime(0);
-        onlineFileLoader.setDataLoader(new CommonsDataLoader());
-        validationJob.setOnlineDataLoader(onlineFileLoader);
+    /**
+     * Loads trusted lists of the countries the signatures' certificates come from, if they are
+     * allowed and not loaded yet. Returns true if a new snapshot was published. While a refresh is
+     * running, the document is validated with the current snapshot and the countries are loaded in
+     * background after the refresh, the new snapshot invalidates the cached result.
+     */
+    private boolean loadTrustedListsFor(List<CertificateToken> certificates) {
+        if (tlCountries == null)
+            return false;
+
+        var countries = TrustedListCountries.getCountries(certificates);
+        if (!tlCountries.needsLoading(countries))
+            return false;
+
+        if (!refreshLock.tryLock()) {
+            logger.debug("Trusted lists refresh is running, loading trusted lists for {} in background", countries);
+            getTrustedListsLoader().execute(() -> {
+                refreshLock.lock();
+                try {
+                    loadTrustedLists(countries);
+                } finally {
+                    refreshLock.unlock();
+                }
+            });
+            return false;
+        }
 
+        try {
+            return loadTrustedLists(countries);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Must be called with refreshLock held.
+     */
+    private boolean loadTrustedLists(Collection<String> countries) {
+        if (!tlCountries.needsLoading(countries))
+            return false;
+
+        logger.debug("Loading trusted lists for {}", countries);
+        tlCountries.load(countries);
+        publishSnapshot();
+        return true;
+    }
+
+    private synchronized ExecutorService getTrustedListsLoader() {
+        if (trustedListsLoader == null)
+            trustedListsLoader = Executors.newSingleThreadExecutor(runnable -> {
+                var thread = new Thread(runnable, "autogram-trusted-lists-load");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        return trustedListsLoader;
+    }
+
+    public TrustedListsRefresher getTrustedListsRefresher() {
+        return trustedListsRefresher;
+    }
+
+    /**
+     * Synchronizes TLs and publishes them, unless the LOTL could not be loaded. In that case the
+     * current snapshot is kept and validations go on with the previously loaded TLs.
+     */
+    private TrustedListsRefresher.Result refreshTrustedLists(boolean online) {
+        refreshLock.lock();
+        try {
+            if (validationJob == null)
+                throw new IllegalStateException("Signature validator is not initialized");
+
+            var trustedListCertificateSource = synchronizeTrustedLists(online);
+            var summary = trustedListCertificateSource.getSummary();
+            if (summary.getLOTLInfos().stream().noneMatch(lotl -> lotl.getParsingCacheInfo().isResultExist()))
+                throw new IllegalStateException("List of trusted lists is not available, keeping previous trusted lists");
+
+            var changed = countChanged(snapshot.get().tlSequenceNumbers(), getSequenceNumbers(summary));
+            var failed = (int) getTLInfos(summary).stream().filter(tl -> tl.getDownloadCacheInfo().isError()
+                    || tl.getParsingCacheInfo().isError() || tl.getValidationCacheInfo().isError()).count();
+
+            publishAndStoreSnapshot(trustedListCertificateSource);
+            return new TrustedListsRefresher.Result(changed, failed);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public void initialize(ExecutorService executorService, List<String> tlCountries) {
+        var latch = new CountDownLatch(1);
+        initialized = latch;
+
+        refreshLock.lock();
+        try {
+            SimpleDateFormat formatter = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+            logger.debug("Initializing signature validator at {}", formatter.format(new Date()));
+
+            validationJob = new TLValidationJob();
+
+            var lotlSource = new LOTLSource();
+            lotlSource.setCertificateSource(getJournalCertificateSource());
+            lotlSource.setSigningCertificatesAnnouncementPredicate(new OfficialJournalSchemeInformationURI(OJ_URL));
+            lotlSource.setUrl(LOTL_URL);
+            lotlSource.setPivotSupport(true);
+
+            var offlineFileLoader = new FileCacheDataLoader();
+            offlineFileLoader.setCacheExpirationTime(21600000);
+            offlineFileLoader.setDataLoader(new CommonsDataLoader());
+            validationJob.setOfflineDataLoader(offlineFileLoader);
+
+            var onlineFileLoader = new FileCacheDataLoader();
+            onlineFileLoader.setCacheExpirationTime(0);
+            onlineFileLoader.setDataLoader(new CommonsDataLoader());
+            validationJob.setOnlineDataLoader(onlineFileLoader);
+
+            var cacheCleaner = new CacheCleaner();
+            cacheCleaner.setCleanMemory(true);
+            cacheCleaner.setCleanFileSystem(false);
+            validationJob.setCacheCleaner(cacheCleaner);
+
+            validationJob.setListOfTrustedListSources(lotlSource);
+            validationJob.setSynchronizationStrategy(new ExpirationAndSignatureCheckStrategy());
+            validationJob.setExecutorService(executorService);
+            validationJob.setDebug(false);
+
+            this.tlCountries = new TrustedListCountries(tlCountries, MAX_LOADED_TLS);
+            lotlSource.setTlPredicate(TLPredicateFactory.createEUTLPredicate()
+                    .and(new SchemeTerritoryOtherTSLPointer(this.tlCountries.getLoaded())));
+
+            if (trustedListsSnapshot == null)
+                trustedListsSnapshot = TrustedListsSnapshot.createDefault();
+
+            var stored = trustedListsSnapshot.load(this.tlCountries);
+            if (stored != null) {
+                logger.debug("Using stored trusted lists snapshot until offline refresh finishes");
+                this.tlCountries.load(stored.tlCountries());
+                publishSnapshot(stored.source());
+                latch.countDown();
+            }
+
+            logger.debug("Starting signature validator offline refresh");
+            publishSnapshot();
+
+            getValidationPolicy();
+            logger.debug("Signature validator initialized at {}", formatter.format(new Date()));
+        } finally {
+            refreshLock.unlock();
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Synchronizes TLs into a fresh certificate source, publishes a new snapshot with it and stores
+     * it for the next start. Must be called with refreshLock held, TLValidationJob is not safe for
+     * concurrent refreshes.
+     */
+    private void publishSnapshot() {
+        publishAndStoreSnapshot(synchronizeTrustedLists(false));
+    }
+
+    /**
+     * Online refresh downloads all TLs again, offline refresh only the ones missing or expired in
+     * the file cache.
+     */
+    private TrustedListsCertificateSource synchronizeTrustedLists(boolean online) {
         var trustedListCertificateSource = new TrustedListsCertificateSource();
         validationJob.setTrustedListCertificateSource(trustedListCertificateSource);
-        validationJob.setListOfTrustedListSources(lotlSource);
-        validationJob.setSynchronizationStrategy(new ExpirationAndSignatureCheckStrategy());
-        validationJob.setExecutorService(executorService);
-        validationJob.setDebug(false);
+        if (online)
+            validationJob.onlineRefresh();
+        else
+            validationJob.offlineRefresh();
+
+        return trustedListCertificateSource;
+    }
 
-        logger.debug("Starting signature validator offline refresh");
-        validationJob.offlineRefresh();
+    private void publishAndStoreSnapshot(TrustedListsCertificateSource trustedListCertificateSource) {
+        publishSnapshot(trustedListCertificateSource);
+        if (trustedListCertificateSource.getSummary().getNumberOfProcessedLOTLs() > 0)
+            trustedListsSnapshot.save(trustedListCertificateSource, tlCountries.getLoadedSorted());
+    }
 
-        verifier = new CommonCertificateVerifier();
+    private void publishSnapshot(TrustedListsCertificateSource trustedListCertificateSource) {
+        var verifier = createCertificateVerifier();
         verifier.setTrustedCertSources(trustedListCertificateSource);
-        verifier.setCrlSource(new OnlineCRLSource());
-        verifier.setOcspSource(new OnlineOCSPSource());
+        verifier.setCrlSource(crlSource);
+        verifier.setOcspSource(ocspSource);
+
+        var cryptoVerifier = createCertificateVerifier();
+        cryptoVerifier.setTrustedCertSources(trustedListCertificateSource);
+
+        var summary = trustedListCertificateSource.getSummary();
+        var processedLOTLs = summary == null ? 0 : summary.getNumberOfProcessedLOTLs();
+        var sequenceNumbers = summary == null ? Map.<String, Integer>of() : getSequenceNumbers(summary);
+        snapshot.set(new Snapshot(verifier, cryptoVerifier, processedLOTLs, snapshot.get().version() + 1,
+                sequenceNumbers));
+        validationResultCache.invalidate();
+    }
+
+    /**
+     * All verifiers share the AIA source, issuer certificates missing in signatures are downloaded
+     * once and not with every validation.
+     */
+    private CommonCertificateVerifier createCertificateVerifier() {
+        var verifier = new CommonCertificateVerifier();
+        verifier.setAIASource(aiaSource);
+        return verifier;
+    }
+
+    private static List<TLInfo> getTLInfos(TLValidationJobSummary summary) {
+        var infos = new ArrayList<TLInfo>();
+        for (var lotl : summary.getLOTLInfos()) {
+            infos.add(lotl);
+            infos.addAll(lotl.getTLInfos());
+        }
+        infos.addAll(summary.getOtherTLInfos());
+
+        return infos;
+    }
+
+    private static Map<String, Integer> getSequenceNumbers(TLValidationJobSummary summary) {
+        var sequenceNumbers = new LinkedHashMap<String, Integer>();
+        for (var tl : getTLInfos(summary)) {
+            var parsing = tl.getParsingCacheInfo();
+            if (parsing != null && parsing.isResultExist() && parsing.getSequenceNumber() != null)
+                sequenceNumbers.put(tl.getUrl(), parsing.getSequenceNumber());
+        }
 
-        logger.debug("Signature validator initialized at {}", formatter.format(new Date()));
+        return sequenceNumbers;
+    }
+
+    /**
+     * TLs with a new sequence number, added or no longer loaded.
+     */
+    private static int countChanged(Map<String, Integer> previous, Map<String, Integer> current) {
+        var changed = (int) current.entrySet().stream()
+                .filter(tl -> !tl.getValue().equals(previous.get(tl.getKey()))).count();
+        changed += (int) previous.keySet().stream().filter(url -> !current.containsKey(url)).count();
+
+        return changed;
+    }
+
+    /**
+     * In offline-only mode revocation data (OCSP, CRL) and issuer certificates (AIA) are taken only
+     * from the cache, even if they are expired, and nothing is downloaded.
+     */
+    public void setRevocationOfflineOnly(boolean offlineOnly) {
+        if (revocationCache.isOfflineOnly() == offlineOnly)
+            return;
+
+        revocationCache.setOfflineOnly(offlineOnly);
+        aiaSource.setOfflineOnly(offlineOnly);
+        validationResultCache.invalidate();
+    }
+
+    /**
+     * Returns the validation policy passed to every validation. It is loaded once, DSS would
+     * otherwise load and unmarshal its default policy XML in each validateDocument() call.
+     */
+    public ValidationPolicy getValidationPolicy() {
+        var policy = validationPolicy;
+        if (policy != null)
+            return policy;
+
+        synchronized (this) {
+            if (validationPolicy == null) {
+                try {
+                    validationPolicy = loadValidationPolicy(validationPolicyPath);
+                } catch (DSSException e) {
+                    logger.error("Cannot load validation policy {}, using the default one", validationPolicyPath, e);
+                    validationPolicy = loadValidationPolicy(null);
+                }
+            }
+
+            return validationPolicy;
+        }
+    }
+
+    /**
+     * Uses the validation policy from the given file, or the DSS default policy when the path is
+     * empty. The policy is loaded with the next validation, if the file cannot be loaded, the
+     * default policy is used.
+     */
+    public synchronized void setValidationPolicyPath(String path) {
+        if (path.equals(validationPolicyPath))
+            return;
+
+        validationPolicyPath = path;
+        validationPolicy = null;
+    }
+
+    private static ValidationPolicy loadValidationPolicy(String path) {
+        try {
+            var facade = ValidationPolicyFacade.newFacade();
+            if (path == null || path.isBlank())
+                return facade.getDefaultValidationPolicy();
+
+            return facade.getValidationPolicy(new File(path));
+
+        } catch (JAXBException | XMLStreamException | IOException | SAXException e) {
+            throw new DSSException("Unable to load validation policy", e);
+        }
+    }
+
+    public RevocationCache.Metrics getRevocationCacheMetrics() {
+        return revocationCache.getMetrics();
+    }
+
+    public CachingAIASource.Metrics getAIACacheMetrics() {
+        return aiaSource.getMetrics();
+    }
+
+    public ValidationResultCache.Metrics getValidationResultCacheMetrics() {
+        return validationResultCache.getMetrics();
+    }
+
+    /**
+     * Returns the current snapshot. While the first TL load is running and there is no stored
+     * snapshot, waits for it, so that the documents opened right after start are not validated
+     * without any trusted sources.
+     */
+    private Snapshot getSnapshot() {
+        try {
+            initialized.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return snapshot.get();
+    }
+
+    synchronized ExecutorService getValidationPool() {
+        if (validationPool == null) {
+            validationPool = new ThreadPoolExecutor(VALIDATION_THREADS, VALIDATION_THREADS, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(VALIDATION_QUEUE_SIZE), runnable -> {
+                        var thread = new Thread(runnable, "autogram-validation");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            validationPool.allowCoreThreadTimeOut(true);
+        }
+
+        return validationPool;
+    }
+
+    /**
+     * Revocation lookups wait for the network, not for the CPU, so there are more threads than
+     * processors.
+     */
+    private static ExecutorService createRevocationPool() {
+        var pool = new ThreadPoolExecutor(REVOCATION_THREADS, REVOCATION_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    var thread = new Thread(runnable, "autogram-revocation");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 
     private CertificateSource getJournalCertificateSource() throws AssertionError {
@@ -125,61 +560,76 @@ public class SignatureValidator {
         }
     }
 
-    public synchronized ValidationReports getSignatureValidationReport(SigningJob job) {
-        var documentValidator = createDocumentValidator(job.getDocument());
+    /**
+     * Returns reports of the document validation, or null if the document is not in a format of
+     * signed documents.
+     */
+    public Reports validate(DSSDocument document) {
+        return validate(document, ValidationProfile.FULL);
+    }
+
+    public Reports validate(DSSDocument document, ValidationProfile profile) {
+        var documentValidator = createDocumentValidator(document);
         if (documentValidator == null)
-            return new ValidationReports(null, job);
+            return null;
 
-        return new ValidationReports(validate(documentValidator), job);
+        return validateCached(document, documentValidator, profile);
     }
 
-    public static String getSignatureValidationReportHTML(Reports signatureValidationReport) {
-        try {
-            var document = XMLUtils.getSecureDocumentBuilder().parse(new InputSource(new StringReader(signatureValidationReport.getXmlSimpleReport())));
-            var xmlSource = new DOMSource(document);
-
-            var xsltFile = SignatureValidator.class.getResourceAsStream("simple-report-bootstrap4.xslt");
-            var xsltSource = new StreamSource(xsltFile);
+    /**
+     * Validates the document in a single pass over its parsed signatures. The structural result
+     * (signatures found and their integrity, see ValidationProfile.STRUCTURE_ONLY) is passed to
+     * onSignaturesChecked as soon as it is known, then the same signature objects are fully
+     * validated.
+     */
+    public ValidationReports getSignatureValidationReport(SigningJob job, Consumer<ValidationReports> onSignaturesChecked) {
+        var documentValidator = createDocumentValidator(job.getDocument());
+        if (documentValidator == null) {
+            var reports = new ValidationReports(null, job);
+            onSignaturesChecked.accept(reports);
+            return reports;
+        }
 
-            var outputTarget = new StreamResult(new StringWriter());
-            var transformer = XMLUtils.getSecureTransformerFactory().newTransformer(xsltSource);
-            transformer.transform(xmlSource, outputTarget);
+        var checkReports = new ValidationReports(
+                validateCached(job.getDocument(), documentValidator, ValidationProfile.STRUCTURE_ONLY), job);
+        onSignaturesChecked.accept(checkReports);
 
-            var r = outputTarget.getWriter().toString().trim();
+        if (!checkReports.haveSignatures())
+            return checkReports;
 
-            var templateFile = SignatureValidator.class.getResourceAsStream("simple-report-template.html");
-            var templateString = new String(templateFile.readAllBytes(), StandardCharsets.UTF_8);
-            return templateString.replace("{{content}}", r);
+        return new ValidationReports(validateCached(job.getDocument(), documentValidator, ValidationProfile.FULL), job);
+    }
 
-        } catch (SAXException | IOException | ParserConfigurationException | TransformerException e) {
-            return "Error transforming validation report";
-        }
+    /**
+     * Structure does not depend on trusted sources, its results are cached with version 0 and kept
+     * when a new snapshot invalidates the cache.
+     */
+    private Reports validateCached(DSSDocument document, SignedDocumentValidator documentValidator,
+            ValidationProfile profile) {
+        var version = profile.buildsCertificateChains() ? getSnapshot().version() : 0;
+        var key = ValidationResultCache.Key.of(profile, document, getValidationPolicy(), version);
+        return validationResultCache.get(key, () -> validate(documentValidator, profile));
     }
 
-    public static ValidationReports getSignatureCheckReport(SigningJob job) {
-        var validator = createDocumentValidator(job.getDocument());
-        if (validator == null)
-            return new ValidationReports(null, job);
+    public static String getSignatureValidationReportHTML(Reports signatureValidationReport) {
+        try {
+            return ValidationReportRenderer.getInstance().toHTML(signatureValidationReport);
 
-        validator.setCertificateVerifier(new CommonCertificateVerifier());
-        return new ValidationReports(validator.validateDocument(), job);
+        } catch (IOException | TransformerException e) {
+            return "Error transforming validation report";
+        }
     }
 
+    /**
+     * Returns the format of the first signature in an already signed document, or null. Only the
+     * structure of the document is inspected, signatures are not validated.
+     */
     public static SignatureLevel getSignedDocumentSignatureLevel(DSSDocument document) {
-        var validator = createDocumentValidator(document);
-        if (validator == null)
-            return null;
-
-        validator.setCertificateVerifier(new CommonCertificateVerifier());
-        var report = validator.validateDocument().getSimpleReport();
-        if (report.getSignatureIdList().size() == 0)
-            return null;
-
-        return report.getSignatureFormat(report.getSignatureIdList().get(0));
+        return SignatureFormatDetector.detect(document);
     }
 
-    public synchronized boolean areTLsLoaded() {
+    public boolean areTLsLoaded() {
         // TODO: consider validation turned off as well
-        return validationJob.getSummary().getNumberOfProcessedTLs() > 0;
+        return snapshot.get().processedLOTLs() > 0;
     }
 }
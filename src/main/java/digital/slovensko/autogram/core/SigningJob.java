@@ -1,11 +1,13 @@
 package digital.slovensko.autogram.core;
 
 import java.io.File;
+import java.util.List;
 
 import digital.slovensko.autogram.core.eforms.EFormUtils;
 import digital.slovensko.autogram.core.eforms.XDCBuilder;
 import digital.slovensko.autogram.core.eforms.XDCValidator;
 import digital.slovensko.autogram.core.errors.AutogramException;
+import digital.slovensko.autogram.util.FileBackedContainerHandler;
 import digital.slovensko.autogram.util.Logging;
 import eu.europa.esig.dss.asic.cades.signature.ASiCWithCAdESService;
 import eu.europa.esig.dss.asic.xades.signature.ASiCWithXAdESService;
@@ -22,10 +24,16 @@ import static digital.slovensko.autogram.core.AutogramMimeType.*;
 public class SigningJob {
     private final Responder responder;
     private final DSSDocument document;
+    private final List<DSSDocument> documents;
     private final SigningParameters parameters;
 
     private SigningJob(DSSDocument document, SigningParameters parameters, Responder responder) {
-        this.document = document;
+        this(List.of(document), parameters, responder);
+    }
+
+    private SigningJob(List<DSSDocument> documents, SigningParameters parameters, Responder responder) {
+        this.document = documents.get(0);
+        this.documents = documents;
         this.parameters = parameters;
         this.responder = responder;
     }
@@ -34,6 +42,14 @@ public class SigningJob {
         return this.document;
     }
 
+    public List<DSSDocument> getDocuments() {
+        return documents;
+    }
+
+    public boolean isMultipleDocumentsContainer() {
+        return documents.size() > 1;
+    }
+
     public SigningParameters getParameters() {
         return parameters;
     }
@@ -44,16 +60,22 @@ public class SigningJob {
 
     public void signWithKeyAndRespond(SigningKey key) throws InterruptedException, AutogramException {
 
-        Logging.log("Signing Job: " + this.hashCode() + " file " + getDocument().getName());
+        Logging.log("Signing Job: " + this.hashCode() + " file " + getDocument().getName()
+                + (isMultipleDocumentsContainer() ? " and " + (documents.size() - 1) + " more" : ""));
         boolean isContainer = getParameters().getContainer() != null;
-        var doc = switch (getParameters().getSignatureType()) {
-            case XAdES -> isContainer ? signDocumentAsAsiCWithXAdeS(key) : signDocumentAsXAdeS(key);
-            case CAdES -> isContainer ? signDocumentAsASiCWithCAdeS(key) : signDocumentAsCAdeS(key);
-            case PAdES -> signDocumentAsPAdeS(key);
-            default -> throw new RuntimeException(
-                    "Unsupported signature type: " + getParameters().getSignatureType());
-        };
-        responder.onDocumentSigned(new SignedDocument(doc, key.getCertificate()));
+        try {
+            var doc = switch (getParameters().getSignatureType()) {
+                case XAdES -> isContainer ? signDocumentAsAsiCWithXAdeS(key) : signDocumentAsXAdeS(key);
+                case CAdES -> isContainer ? signDocumentAsASiCWithCAdeS(key) : signDocumentAsCAdeS(key);
+                case PAdES -> signDocumentAsPAdeS(key);
+                default -> throw new RuntimeException(
+                        "Unsupported signature type: " + getParameters().getSignatureType());
+            };
+            responder.onDocumentSigned(new SignedDocument(doc, key.getCertificate()));
+        } finally {
+            // the responder has saved the container by now
+            FileBackedContainerHandler.deleteTemporaryFiles();
+        }
     }
 
     public void onDocumentSignFailed(AutogramException e) {
@@ -85,6 +107,13 @@ public class SigningJob {
         signatureParameters.setCertificateChain(key.getCertificateChain());
         signatureParameters.setSignWithExpiredCertificate(true);
 
+        if (isMultipleDocumentsContainer()) {
+            var dataToSign = service.getDataToSign(documents, signatureParameters);
+            var signatureValue = key.sign(dataToSign, getParameters().getDigestAlgorithm());
+
+            return service.signDocument(documents, signatureParameters, signatureValue);
+        }
+
         var dataToSign = service.getDataToSign(getDocument(), signatureParameters);
         var signatureValue = key.sign(dataToSign, getParameters().getDigestAlgorithm());
 
@@ -117,6 +146,13 @@ public class SigningJob {
         signatureParameters.setCertificateChain(key.getCertificateChain());
         signatureParameters.setSignWithExpiredCertificate(true);
 
+        if (isMultipleDocumentsContainer()) {
+            var dataToSign = service.getDataToSign(documents, signatureParameters);
+            var signatureValue = key.sign(dataToSign, getParameters().getDigestAlgorithm());
+
+            return service.signDocument(documents, signatureParameters, signatureValue);
+        }
+
         var dataToSign = service.getDataToSign(getDocument(), signatureParameters);
         var signatureValue = key.sign(dataToSign, jobParameters.getDigestAlgorithm());
 
@@ -142,7 +178,9 @@ public class SigningJob {
     public static FileDocument createDSSFileDocumentFromFile(File file) {
         var fileDocument = new FileDocument(file);
 
-        if (isXDC(fileDocument.getMimeType()) || isXML(fileDocument.getMimeType()) && XDCValidator.isXDCContent(fileDocument))
+        if (isXDC(fileDocument.getMimeType()) || isXML(fileDocument.getMimeType())
+                && DocumentTypeDetector.detect(fileDocument) == DocumentTypeDetector.DocumentType.XDC
+                && XDCValidator.isXDCContent(fileDocument))
             fileDocument.setMimeType(AutogramMimeType.XML_DATACONTAINER);
 
         return fileDocument;
@@ -170,6 +208,12 @@ public class SigningJob {
         return new SigningJob(document, parameters, responder);
     }
 
+    public static SigningJob buildFromFilesAsContainer(List<File> files, Responder responder, SignatureLevel containerLevel, boolean isEn319132) {
+        var documents = files.stream().map(file -> (DSSDocument) new FileDocument(file)).toList();
+        var parameters = SigningParameters.buildForASiCContainer(containerLevel, documents.get(0), isEn319132);
+        return new SigningJob(documents, parameters, responder);
+    }
+
     public static SigningJob buildFromFileBatch(File file, Autogram autogram, Responder responder, boolean checkPDFACompliance, SignatureLevel signatureType, boolean isEn319132) {
         var document = createDSSFileDocumentFromFile(file);
         var parameters = getParametersForFile(document, checkPDFACompliance, signatureType, isEn319132);
@@ -11,18 +11,45 @@ import eu.europa.esig.dss.model.ToBeSigned;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.token.AbstractKeyStoreTokenConnection;
 import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.KeyStoreSignatureTokenConnection;
 
 public class SigningKey {
     final AbstractKeyStoreTokenConnection token;
     final DSSPrivateKeyEntry privateKey;
+    /** Session the token belongs to, null when the key owns its token */
+    private final TokenSession session;
 
     public SigningKey(AbstractKeyStoreTokenConnection token, DSSPrivateKeyEntry privateKey) {
         this.token = token;
         this.privateKey = privateKey;
+        this.session = null;
+    }
+
+    public SigningKey(TokenSession session, DSSPrivateKeyEntry privateKey) {
+        this.token = session.getToken();
+        this.privateKey = privateKey;
+        this.session = session;
     }
 
     public SignatureValue sign(ToBeSigned dataToSign, DigestAlgorithm algo) {
-        return token.sign(dataToSign, algo, privateKey);
+        if (session != null)
+            return session.sign(dataToSign, algo, privateKey);
+
+        if (supportsConcurrentSigning())
+            return token.sign(dataToSign, algo, privateKey);
+
+        // documents prepared in parallel take turns on the token, sessions do the same in TokenSession
+        synchronized (token) {
+            return token.sign(dataToSign, algo, privateKey);
+        }
+    }
+
+    /**
+     * Software keystores keep the private key in memory and create a new JCA Signature for every
+     * signature, so several documents can be signed with them at once. Hardware tokens sign one at a time.
+     */
+    public boolean supportsConcurrentSigning() {
+        return token instanceof KeyStoreSignatureTokenConnection;
     }
 
     public CertificateToken getCertificate() {
@@ -44,6 +71,8 @@ public class SigningKey {
     }
 
     public void close() {
-        token.close();
+        // session managed tokens stay open for the next job, TokenSessionManager closes them
+        if (session == null)
+            token.close();
     }
 }
@@ -0,0 +1,135 @@
+package digital.slovensko.autogram.core;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import digital.slovensko.autogram.core.errors.AutogramException;
+import digital.slovensko.autogram.core.errors.NoKeysDetectedException;
+import digital.slovensko.autogram.core.errors.TokenRemovedException;
+import digital.slovensko.autogram.util.Logging;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+
+/**
+ * Signing key backed by several tokens (cards or HSM slots) holding the same certificate.
+ *
+ * Every signature is dispatched to a token that is not signing, one signature runs on a token at a
+ * time since token sessions sign one by one. A token that has been removed is taken out of the pool
+ * and the signature is retried on the next one, other errors are thrown to the caller.
+ */
+public class SigningKeyPool extends SigningKey {
+    private final List<Member> members;
+    private int nextMember = 0;
+
+    private static class Member {
+        private final SigningKey key;
+        private final AtomicLong signatures = new AtomicLong();
+        private boolean busy = false;
+        private boolean available = true;
+
+        private Member(SigningKey key) {
+            this.key = key;
+        }
+    }
+
+    public SigningKeyPool(List<SigningKey> keys) {
+        super(first(keys).token, first(keys).privateKey);
+
+        var certificate = keys.get(0).getCertificate();
+        if (keys.stream().anyMatch(k -> !k.getCertificate().equals(certificate)))
+            throw new IllegalArgumentException("All keys in the pool must have the same certificate");
+
+        this.members = keys.stream().map(Member::new).toList();
+    }
+
+    private static SigningKey first(List<SigningKey> keys) {
+        if (keys.isEmpty())
+            throw new NoKeysDetectedException();
+
+        return keys.get(0);
+    }
+
+    @Override
+    public SignatureValue sign(ToBeSigned dataToSign, DigestAlgorithm algo) {
+        DSSException lastError = null;
+        for (int attempt = 0; attempt < members.size(); attempt++) {
+            var member = acquire();
+            if (member == null)
+                break;
+
+            try {
+                var signatureValue = member.key.sign(dataToSign, algo);
+                member.signatures.incrementAndGet();
+                release(member, true);
+                return signatureValue;
+            } catch (DSSException e) {
+                var tokenRemoved = AutogramException.createFromDSSException(e) instanceof TokenRemovedException;
+                release(member, !tokenRemoved);
+                if (!tokenRemoved)
+                    throw e;
+
+                Logging.log("Token in signing key pool has been removed, trying another one: " + e.getMessage());
+                lastError = e;
+            }
+        }
+
+        if (lastError != null)
+            throw lastError;
+
+        throw new NoKeysDetectedException();
+    }
+
+    /**
+     * Waits for an available token that is not signing, returns null when no token is left in the pool
+     */
+    private synchronized Member acquire() {
+        while (true) {
+            if (members.stream().noneMatch(m -> m.available))
+                return null;
+
+            for (int i = 0; i < members.size(); i++) {
+                var member = members.get((nextMember + i) % members.size());
+                if (member.available && !member.busy) {
+                    member.busy = true;
+                    nextMember = (nextMember + i + 1) % members.size();
+                    return member;
+                }
+            }
+
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private synchronized void release(Member member, boolean tokenAvailable) {
+        member.busy = false;
+        if (!tokenAvailable)
+            member.available = false;
+
+        notifyAll();
+    }
+
+    @Override
+    public boolean supportsConcurrentSigning() {
+        return true;
+    }
+
+    public synchronized int getAvailableTokensCount() {
+        return (int) members.stream().filter(m -> m.available).count();
+    }
+
+    public List<Long> getSignaturesPerToken() {
+        return members.stream().map(m -> m.signatures.get()).toList();
+    }
+
+    @Override
+    public void close() {
+        members.forEach(m -> m.key.close());
+    }
+}
@@ -273,6 +273,15 @@ public class SigningParameters {
                 null, null, null, "", false, 640, true, document);
     }
 
+    public static SigningParameters buildForASiCContainer(SignatureLevel level, DSSDocument document, boolean signAsEn319132) throws AutogramException {
+        if (level != SignatureLevel.XAdES_BASELINE_B && level != SignatureLevel.CAdES_BASELINE_B)
+            throw new SigningParametersException("Nesprávny typ podpisu", "Kontajner s viacerými dokumentmi je možné podpísať iba podpisom XAdES alebo CAdES");
+
+        return buildParameters(level, ASiCContainerType.ASiC_E,
+                null, SignaturePackaging.ENVELOPING, DigestAlgorithm.SHA256, signAsEn319132, null, null,
+                null, null, null, "", false, 640, false, document);
+    }
+
     public String getIdentifier() {
         return identifier;
     }
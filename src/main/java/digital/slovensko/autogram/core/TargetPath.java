@@ -1,9 +1,13 @@
 package digital.slovensko.autogram.core;
 
+import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.regex.Pattern;
 
 import digital.slovensko.autogram.core.errors.SourceAndTargetTypeMismatchException;
 import digital.slovensko.autogram.core.errors.TargetAlreadyExistsException;
@@ -19,6 +23,7 @@ public class TargetPath {
     private final boolean useUniqueFileName;
     private final boolean isForMultipleFiles;
     private final boolean isParents;
+    private final boolean isResume;
     private final boolean isSignatureLevelPades;
     private final FileSystem fs;
 
@@ -28,10 +33,23 @@ public class TargetPath {
 
     public TargetPath(String target, Path source, boolean force, boolean parents, boolean multipleFiles,
             FileSystem fileSystem, boolean isSignatureLevelPades) {
+        this(target, source, force, parents, false, multipleFiles, fileSystem, isSignatureLevelPades);
+    }
+
+    /**
+     * When resuming an interrupted run of a source directory, the target directory of that run is
+     * used again instead of a new unique one, and targets left by it are overwritten. Without a
+     * target it is the generated target directory with the most recently written journal. Files
+     * already signed by that run are skipped by the caller. A single source file is never resumed,
+     * its existing target is not overwritten.
+     */
+    public TargetPath(String target, Path source, boolean force, boolean parents, boolean resume,
+            boolean multipleFiles, FileSystem fileSystem, boolean isSignatureLevelPades) {
         fs = fileSystem;
         sourceFile = source;
         isForce = force;
         isParents = parents;
+        isResume = resume && multipleFiles;
         this.isSignatureLevelPades = isSignatureLevelPades;
 
         isGenerated = target == null;
@@ -40,7 +58,12 @@ public class TargetPath {
         isForMultipleFiles = multipleFiles;
         var useUniqueDirectoryName = isForMultipleFiles && !isTargetMissing && source == null;
         if (isTargetMissing) {
-            if (isForMultipleFiles) {
+            var targetOfLastRun = isResume ? findTargetOfLastRun(source) : null;
+            if (targetOfLastRun != null) {
+                targetDirectory = targetOfLastRun;
+                targetName = null;
+
+            } else if (isForMultipleFiles) {
 
                 targetDirectory = fs.getPath(
                         generateUniqueName(source.toAbsolutePath().getParent().toString(),
@@ -58,7 +81,7 @@ public class TargetPath {
             if (!hasSourceAndTargetMatchingType(sourceFile, targetFile))
                 throw new SourceAndTargetTypeMismatchException();
 
-            if (Files.exists(targetFile) && !isForce) {
+            if (Files.exists(targetFile) && !isForce && !isResume) {
                 if (isForMultipleFiles && useUniqueDirectoryName) {
                     targetFile = fs.getPath(
                             generateUniqueName(targetFile.toAbsolutePath().getParent().toString(),
@@ -80,15 +103,73 @@ public class TargetPath {
         }
     }
 
+    private TargetPath(TargetPath parent, Path targetDirectory) {
+        fs = parent.fs;
+        sourceFile = parent.sourceFile;
+        isForce = parent.isForce;
+        isParents = true;
+        isResume = parent.isResume;
+        isSignatureLevelPades = parent.isSignatureLevelPades;
+        isGenerated = parent.isGenerated;
+        useUniqueFileName = parent.useUniqueFileName;
+        isForMultipleFiles = parent.isForMultipleFiles;
+        targetName = parent.targetName;
+        this.targetDirectory = targetDirectory;
+    }
+
+    /**
+     * Generated target directory of the source, "source_signed" or "source_signed (n)", whose
+     * journal (saved next to it by SigningJournal) was written last. Null if there is none.
+     */
+    private static Path findTargetOfLastRun(Path source) {
+        var directory = source.toAbsolutePath().getParent();
+        var journalName = Pattern.compile(Pattern.quote(source.getFileName().toString() + "_signed")
+                + "( \\(\\d+\\))?\\.journal");
+
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> journalName.matcher(file.getFileName().toString()).matches())
+                    .filter(journal -> Files.isRegularFile(journal) && Files.isDirectory(getJournalTarget(journal)))
+                    .max(Comparator.comparing(TargetPath::getLastModifiedTime))
+                    .map(TargetPath::getJournalTarget)
+                    .orElse(null);
+
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Path getJournalTarget(Path journal) {
+        var name = journal.getFileName().toString();
+        return journal.resolveSibling(name.substring(0, name.length() - ".journal".length()));
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
     public static TargetPath fromParams(CliParameters params) {
+        var source = params.getSource().toPath();
+        return new TargetPath(params.getTarget(), source, params.isForce(), params.shouldMakeParentDirectories(),
+                params.shouldResume(), Files.isDirectory(source), FileSystems.getDefault(), params.shouldSignPDFAsPades());
+    }
+
+    public static TargetPath fromParamsForContainer(CliParameters params) {
         return new TargetPath(params.getTarget(), params.getSource().toPath(), params.isForce(),
-                params.shouldMakeParentDirectories(), FileSystems.getDefault(), params.shouldSignPDFAsPades());
+                params.shouldMakeParentDirectories(), false, FileSystems.getDefault(), false);
     }
 
     public static TargetPath fromSource(Path source, boolean isSignatureLevelPades) {
         return new TargetPath(null, source, false, false, FileSystems.getDefault(), isSignatureLevelPades);
     }
 
+    public static TargetPath fromSourceForContainer(Path source) {
+        return new TargetPath(null, source, false, false, false, FileSystems.getDefault(), false);
+    }
+
     public static TargetPath fromTargetDirectory(Path targetDirectory, boolean isSignatureLevelPades) {
         return new TargetPath(targetDirectory.toString(), null, false, false, true,
                 FileSystems.getDefault(), isSignatureLevelPades);
@@ -98,6 +179,17 @@ public class TargetPath {
         return targetDirectory;
     }
 
+    /**
+     * Target for files from a subdirectory of the source directory, they are saved in the same
+     * subdirectory of the target directory. The subdirectory is created by mkdirIfDir.
+     */
+    public TargetPath forSubdirectory(Path relativeDirectory) {
+        if (relativeDirectory.toString().isEmpty() || !isForMultipleFiles)
+            return this;
+
+        return new TargetPath(this, targetDirectory.resolve(relativeDirectory.toString()));
+    }
+
     /**
      * Create directory when we want to fill it out
      */
@@ -125,15 +217,16 @@ public class TargetPath {
         }
     }
 
-    private static boolean hasSourceAndTargetMatchingType(Path source, Path target) {
+    private boolean hasSourceAndTargetMatchingType(Path source, Path target) {
         if (!Files.exists(target))
             return true;
 
         if (source == null)
             return true;
 
-        var bothAreFiles = Files.isRegularFile(target) && Files.isRegularFile(source);
-        var bothAreDirectories = Files.isDirectory(target) && Files.isDirectory(source);
+        // directory signed into a single container is saved as a file
+        var bothAreFiles = Files.isRegularFile(target) && (Files.isRegularFile(source) || !isForMultipleFiles);
+        var bothAreDirectories = Files.isDirectory(target) && Files.isDirectory(source) && isForMultipleFiles;
 
         return (bothAreDirectories || bothAreFiles);
     }
@@ -146,7 +239,7 @@ public class TargetPath {
     public Path getSaveFilePath(Path singleSourceFile) {
         var file = _getSaveFilePath(singleSourceFile);
 
-        if (Files.exists(file) && !isForce)
+        if (Files.exists(file) && !isForce && !isResume)
             throw new TargetAlreadyExistsException();
 
         return file;
@@ -160,7 +253,7 @@ public class TargetPath {
         if (!Files.exists(targetSingleFile))
             return targetSingleFile;
 
-        if (isForce)
+        if (isForce || isResume)
             return targetSingleFile;
 
         if (useUniqueFileName) {
@@ -0,0 +1,127 @@
+package digital.slovensko.autogram.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+import digital.slovensko.autogram.core.errors.AutogramException;
+import digital.slovensko.autogram.core.errors.TokenRemovedException;
+import digital.slovensko.autogram.drivers.TokenDriver;
+import digital.slovensko.autogram.util.Logging;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.token.AbstractKeyStoreTokenConnection;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+
+/**
+ * Logged-in token connection kept open across signing jobs. When the card is removed and inserted
+ * again, the session reconnects with the password it was opened with, so the user is not asked again
+ * unless the card requires it (e.g. PIN pad readers).
+ */
+public class TokenSession {
+    private final TokenDriver driver;
+    private final Integer slotId;
+    private final char[] password;
+    private final TokenSessionManager manager;
+    private AbstractKeyStoreTokenConnection token;
+    /** Keys of the reconnected token, null until the first reconnect */
+    private List<DSSPrivateKeyEntry> reconnectedKeys = null;
+    private boolean closed = false;
+
+    TokenSession(TokenDriver driver, Integer slotId, char[] password, TokenSessionManager manager) {
+        this.driver = driver;
+        this.slotId = slotId;
+        this.password = password == null ? null : password.clone();
+        this.manager = manager;
+        this.token = driver.createTokenWithPassword(slotId, this.password);
+    }
+
+    public TokenDriver getDriver() {
+        return driver;
+    }
+
+    public Integer getSlotId() {
+        return slotId;
+    }
+
+    public synchronized AbstractKeyStoreTokenConnection getToken() {
+        return token;
+    }
+
+    public synchronized List<DSSPrivateKeyEntry> getKeys() {
+        return token.getKeys();
+    }
+
+    /**
+     * Cheap liveness probe - listing keys only reads object handles from the token, it does not
+     * require any private key operation.
+     */
+    public synchronized boolean isHealthy() {
+        if (closed)
+            return false;
+
+        try {
+            token.getKeys();
+            return true;
+        } catch (DSSException e) {
+            Logging.log("Token session health check failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public synchronized SignatureValue sign(ToBeSigned dataToSign, DigestAlgorithm algo, DSSPrivateKeyEntry privateKey) {
+        try {
+            return token.sign(dataToSign, algo, resolveKey(privateKey));
+        } catch (DSSException e) {
+            if (closed || !(AutogramException.createFromDSSException(e) instanceof TokenRemovedException))
+                throw e;
+
+            if (!reconnect())
+                throw e;
+
+            return token.sign(dataToSign, algo, resolveKey(privateKey));
+        }
+    }
+
+    /**
+     * Key entries picked by the user belong to the token they were listed from, after a reconnect
+     * they are looked up again by their certificate.
+     */
+    private DSSPrivateKeyEntry resolveKey(DSSPrivateKeyEntry privateKey) {
+        if (reconnectedKeys == null)
+            return privateKey;
+
+        return reconnectedKeys.stream()
+                .filter(k -> k.getCertificate().equals(privateKey.getCertificate()))
+                .findFirst().orElse(privateKey);
+    }
+
+    private boolean reconnect() {
+        try {
+            closeToken();
+            token = driver.createTokenWithPassword(slotId, password);
+            reconnectedKeys = token.getKeys();
+            manager.onReconnected();
+            return true;
+        } catch (DSSException e) {
+            Logging.log("Token session reconnect failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public synchronized void close() {
+        closed = true;
+        closeToken();
+        if (password != null)
+            Arrays.fill(password, '\0');
+    }
+
+    private void closeToken() {
+        try {
+            token.close();
+        } catch (DSSException e) {
+            // the session is already gone on a removed card
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package digital.slovensko.autogram.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import digital.slovensko.autogram.drivers.TokenDriver;
+import digital.slovensko.autogram.util.Logging;
+import eu.europa.esig.dss.model.DSSException;
+
+/**
+ * Keeps one logged-in session per driver and slot so that consecutive signing jobs do not open
+ * a new connection (and ask for a password) every time a key is picked.
+ */
+public class TokenSessionManager {
+    private final Map<String, TokenSession> sessions = new HashMap<>();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong reconnected = new AtomicLong();
+    private final AtomicLong failedHealthChecks = new AtomicLong();
+
+    public record Metrics(long opened, long reused, long reconnected, long failedHealthChecks) {
+    }
+
+    /**
+     * Returns an open session for the driver and slot if it is still usable, null otherwise.
+     * Sessions that fail the health check are closed and forgotten.
+     */
+    public synchronized TokenSession getHealthySession(TokenDriver driver, Integer slotId) {
+        var key = sessionKey(driver, slotId);
+        var session = sessions.get(key);
+        if (session == null)
+            return null;
+
+        if (!session.isHealthy()) {
+            failedHealthChecks.incrementAndGet();
+            sessions.remove(key);
+            session.close();
+            return null;
+        }
+
+        reused.incrementAndGet();
+        Logging.log("Reusing token session for " + key);
+        return session;
+    }
+
+    public synchronized TokenSession openSession(TokenDriver driver, Integer slotId, char[] password) {
+        var key = sessionKey(driver, slotId);
+        var previous = sessions.remove(key);
+        if (previous != null)
+            previous.close();
+
+        var session = new TokenSession(driver, slotId, password, this);
+        try {
+            // logs in, a session with a wrong password must not be kept because its health check would
+            // log in with it again and could lock the card
+            session.getKeys();
+        } catch (DSSException e) {
+            session.close();
+            throw e;
+        }
+
+        sessions.put(key, session);
+        opened.incrementAndGet();
+        Logging.log("Opened token session for " + key);
+        return session;
+    }
+
+    public synchronized void closeAll() {
+        sessions.values().forEach(TokenSession::close);
+        sessions.clear();
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(opened.get(), reused.get(), reconnected.get(), failedHealthChecks.get());
+    }
+
+    void onReconnected() {
+        reconnected.incrementAndGet();
+    }
+
+    private static String sessionKey(TokenDriver driver, Integer slotId) {
+        return driver.getName() + ":" + driver.getPath() + "#" + slotId;
+    }
+}
@@ -0,0 +1,112 @@
+package digital.slovensko.autogram.core;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+
+/**
+ * Countries whose trusted lists are loaded. A country allowed in settings is loaded the first time
+ * a validated signature contains a certificate from it. At most maxLoaded countries are kept, the
+ * least recently used ones are evicted.
+ */
+public class TrustedListCountries {
+    private final Set<String> allowed;
+    private final int maxLoaded;
+    private final LinkedHashMap<String, Boolean> recentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+    public TrustedListCountries(Collection<String> allowed, int maxLoaded) {
+        this.allowed = new HashSet<>(allowed);
+        this.maxLoaded = maxLoaded;
+    }
+
+    /**
+     * Live view of the loaded countries, used as the TL predicate of the validation job.
+     */
+    public Collection<String> getLoaded() {
+        return loaded;
+    }
+
+    public synchronized List<String> getLoadedSorted() {
+        return List.copyOf(new TreeSet<>(loaded));
+    }
+
+    public boolean isAllowed(Collection<String> countries) {
+        return allowed.containsAll(countries);
+    }
+
+    /**
+     * Marks the countries as recently used and returns true if some of the allowed ones are not
+     * loaded yet.
+     */
+    public synchronized boolean needsLoading(Collection<String> countries) {
+        var missing = false;
+        for (var country : countries) {
+            if (!allowed.contains(country))
+                continue;
+
+            if (recentlyUsed.get(country) == null)
+                missing = true;
+        }
+
+        return missing;
+    }
+
+    /**
+     * Adds the allowed countries to the loaded ones and evicts the least recently used countries
+     * over the limit. Takes effect with the next TL refresh.
+     */
+    public synchronized void load(Collection<String> countries) {
+        for (var country : countries) {
+            if (!allowed.contains(country))
+                continue;
+
+            recentlyUsed.put(country, Boolean.TRUE);
+            loaded.add(country);
+        }
+
+        var iterator = recentlyUsed.keySet().iterator();
+        while (recentlyUsed.size() > maxLoaded) {
+            var evicted = iterator.next();
+            iterator.remove();
+            loaded.remove(evicted);
+        }
+    }
+
+    /**
+     * Returns trusted list country codes of subjects and issuers of the certificates. The LOTL uses
+     * EL for Greece and UK for the United Kingdom instead of ISO 3166 codes.
+     */
+    public static Set<String> getCountries(Collection<CertificateToken> certificates) {
+        var countries = new HashSet<String>();
+        for (var certificate : certificates) {
+            addCountry(countries, certificate.getSubject().getPrincipal());
+            addCountry(countries, certificate.getIssuer().getPrincipal());
+        }
+
+        return countries;
+    }
+
+    private static void addCountry(Set<String> countries, X500Principal principal) {
+        for (var rdn : X500Name.getInstance(principal.getEncoded()).getRDNs(BCStyle.C)) {
+            var country = IETFUtils.valueToString(rdn.getFirst().getValue()).toUpperCase();
+            countries.add(switch (country) {
+                case "GR" -> "EL";
+                case "GB" -> "UK";
+                default -> country;
+            });
+        }
+    }
+}
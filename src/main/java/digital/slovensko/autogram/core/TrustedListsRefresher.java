@@ -0,0 +1,165 @@
+package digital.slovensko.autogram.core;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Refreshes trusted lists in the background and keeps metrics of the refreshes. The refresh itself
+ * builds new trusted sources aside and swaps them in, validations keep using the previous ones
+ * until then and the previous ones stay in use when the refresh fails.
+ *
+ * After a failure the refresh is retried sooner, the delay starts at FIRST_RETRY_DELAY and doubles
+ * with each consecutive failure up to the regular INTERVAL. Manual refreshes download all lists
+ * again. They start at most once per MIN_MANUAL_INTERVAL after the last attempt, successful or
+ * not, and only one runs at a time. Requests in the meantime get the metrics of the last attempt
+ * or wait for the running refresh.
+ */
+public class TrustedListsRefresher {
+    static final Duration INTERVAL = Duration.ofMinutes(480);
+    static final Duration FIRST_RETRY_DELAY = Duration.ofMinutes(5);
+    static final Duration MIN_MANUAL_INTERVAL = Duration.ofMinutes(1);
+    private static final Logger logger = LoggerFactory.getLogger(TrustedListsRefresher.class);
+
+    private final Refresh refresh;
+    private final Clock clock;
+    private final Object runLock = new Object();
+    private final Object manualRefreshLock = new Object();
+    private CompletableFuture<Metrics> manualRefresh = null;
+    private volatile boolean refreshing = false;
+    private volatile Metrics metrics = new Metrics(null, null, Duration.ZERO, 0, 0, 0, 0, 0, null);
+
+    @FunctionalInterface
+    public interface Refresh {
+        /**
+         * Refreshes trusted lists, downloading all of them if online, otherwise only the expired
+         * ones. Throws if the refreshed lists were not published.
+         */
+        Result run(boolean online);
+    }
+
+    public record Result(int changedTLs, int failedTLs) {
+    }
+
+    public record Metrics(Instant lastAttempt, Instant lastSuccess, Duration lastDuration, int lastChangedTLs,
+            int lastFailedTLs, long refreshes, long failures, int consecutiveFailures, String lastError) {
+    }
+
+    public TrustedListsRefresher(Refresh refresh) {
+        this(refresh, Clock.systemUTC());
+    }
+
+    TrustedListsRefresher(Refresh refresh, Clock clock) {
+        this.refresh = refresh;
+        this.clock = clock;
+    }
+
+    public void schedule(ScheduledExecutorService executor) {
+        schedule(executor, INTERVAL);
+    }
+
+    private void schedule(ScheduledExecutorService executor, Duration delay) {
+        executor.schedule(() -> {
+            run(false);
+            schedule(executor, getNextDelay());
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refreshes trusted lists on the calling thread and returns the metrics after the refresh.
+     */
+    public Metrics refreshNow() {
+        return requestManualRefresh(Runnable::run).join();
+    }
+
+    /**
+     * Starts a refresh in a background thread and returns without waiting for it, e.g. so that the
+     * HTTP server thread is not blocked by the downloads.
+     */
+    public CompletableFuture<Metrics> refreshInBackground() {
+        return requestManualRefresh(runnable -> {
+            var thread = new Thread(runnable, "autogram-trusted-lists-refresh");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private CompletableFuture<Metrics> requestManualRefresh(Executor executor) {
+        var refresh = new CompletableFuture<Metrics>();
+        synchronized (manualRefreshLock) {
+            if (manualRefresh != null && !manualRefresh.isDone())
+                return manualRefresh;
+
+            var lastAttempt = metrics.lastAttempt();
+            if (lastAttempt != null && lastAttempt.plus(MIN_MANUAL_INTERVAL).isAfter(clock.instant()))
+                return CompletableFuture.completedFuture(metrics);
+
+            manualRefresh = refresh;
+        }
+
+        executor.execute(() -> {
+            try {
+                refresh.complete(run(true));
+            } catch (Throwable e) {
+                refresh.completeExceptionally(e);
+                throw e;
+            }
+        });
+
+        return refresh;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isRefreshing() {
+        return refreshing;
+    }
+
+    Duration getNextDelay() {
+        var failures = metrics.consecutiveFailures();
+        if (failures == 0)
+            return INTERVAL;
+
+        var delay = FIRST_RETRY_DELAY.multipliedBy(1L << Math.min(failures - 1, 16));
+        return delay.compareTo(INTERVAL) < 0 ? delay : INTERVAL;
+    }
+
+    private Metrics run(boolean online) {
+        synchronized (runLock) {
+            var start = clock.instant();
+            var previous = metrics;
+            refreshing = true;
+
+            try {
+                var result = refresh.run(online);
+                var duration = Duration.between(start, clock.instant());
+                logger.debug("Trusted lists refreshed in {} ms, {} changed, {} failed", duration.toMillis(),
+                        result.changedTLs(), result.failedTLs());
+
+                metrics = new Metrics(start, start, duration, result.changedTLs(), result.failedTLs(),
+                        previous.refreshes() + 1, previous.failures(), 0, null);
+
+            } catch (RuntimeException e) {
+                logger.warn("Trusted lists refresh failed: {}", e.getMessage());
+                logger.debug("Trusted lists refresh failure", e);
+                metrics = new Metrics(start, previous.lastSuccess(), Duration.between(start, clock.instant()), 0, 0,
+                        previous.refreshes() + 1, previous.failures() + 1, previous.consecutiveFailures() + 1,
+                        e.getMessage());
+
+            } finally {
+                refreshing = false;
+            }
+
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package digital.slovensko.autogram.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.prefs.Preferences;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import digital.slovensko.autogram.util.Logging;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.tsl.TLValidationJobSummary;
+import eu.europa.esig.dss.spi.tsl.TrustProperties;
+import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
+
+/**
+ * Result of the last trusted lists synchronization stored on disk, so that validation is available
+ * right after start instead of waiting until all TLs are parsed and their signatures checked.
+ *
+ * The file is authenticated with HMAC-SHA256 keyed by a random per-user key kept in user
+ * preferences, and it is deserialized only after the HMAC matches and only from DSS and JDK classes.
+ */
+public class TrustedListsSnapshot {
+    private static final int MAGIC = 0x4147544c; // AGTL
+    private static final int VERSION = 1;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int HMAC_LENGTH = 32;
+    /** Older snapshots are ignored, TLs are loaded the usual way */
+    static final Duration MAX_AGE = Duration.ofDays(7);
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=64;java.base/*;eu.europa.esig.dss.**;!*");
+
+    private final Path file;
+    private final byte[] key;
+    private final Clock clock;
+
+    public record Content(List<String> tlCountries, TrustedListsCertificateSource source) {
+    }
+
+    public TrustedListsSnapshot(Path file, byte[] key) {
+        this(file, key, Clock.systemUTC());
+    }
+
+    TrustedListsSnapshot(Path file, byte[] key, Clock clock) {
+        this.file = file;
+        this.key = key;
+        this.clock = clock;
+    }
+
+    public static TrustedListsSnapshot createDefault() {
+        return new TrustedListsSnapshot(Path.of(System.getProperty("java.io.tmpdir"), "autogram-tl-snapshot.bin"),
+                loadOrCreateKey());
+    }
+
+    /**
+     * Returns the stored certificate source and its TL countries if it exists, is authentic, not
+     * older than MAX_AGE and all its countries are still allowed, otherwise null.
+     */
+    public Content load(TrustedListCountries allowedCountries) {
+        if (!Files.exists(file))
+            return null;
+
+        try {
+            var content = Files.readAllBytes(file);
+            if (content.length < HMAC_LENGTH)
+                return null;
+
+            var payload = Arrays.copyOf(content, content.length - HMAC_LENGTH);
+            var hmac = Arrays.copyOfRange(content, content.length - HMAC_LENGTH, content.length);
+            if (!MessageDigest.isEqual(hmac, computeHmac(payload))) {
+                Logging.log("Ignoring trusted lists snapshot " + file + " with invalid HMAC");
+                return null;
+            }
+
+            var input = new DataInputStream(new ByteArrayInputStream(payload));
+            if (input.readInt() != MAGIC || input.readInt() != VERSION)
+                return null;
+
+            var created = Instant.ofEpochMilli(input.readLong());
+            var countriesKey = input.readUTF();
+            var tlCountries = countriesKey.isEmpty() ? List.<String>of() : List.of(countriesKey.split(","));
+            if (created.plus(MAX_AGE).isBefore(clock.instant()) || !allowedCountries.isAllowed(tlCountries))
+                return null;
+
+            var objects = new ObjectInputStream(input);
+            objects.setObjectInputFilter(FILTER);
+            var summary = (TLValidationJobSummary) objects.readObject();
+            @SuppressWarnings("unchecked")
+            var trustProperties = (Map<CertificateToken, List<TrustProperties>>) objects.readObject();
+
+            var source = new TrustedListsCertificateSource();
+            source.setSummary(summary);
+            source.setTrustPropertiesByCertificates(trustProperties);
+            return new Content(tlCountries, source);
+
+        } catch (IOException | ClassNotFoundException | ClassCastException | GeneralSecurityException e) {
+            Logging.log("Unable to load trusted lists snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    public void save(TrustedListsCertificateSource source, List<String> tlCountries) {
+        var trustProperties = new LinkedHashMap<CertificateToken, List<TrustProperties>>();
+        for (var certificate : source.getCertificates())
+            trustProperties.put(certificate, new ArrayList<>(source.getTrustServices(certificate)));
+
+        try {
+            var output = new ByteArrayOutputStream();
+            var data = new DataOutputStream(output);
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeLong(clock.millis());
+            data.writeUTF(countriesKey(tlCountries));
+
+            var objects = new ObjectOutputStream(data);
+            objects.writeObject(source.getSummary());
+            objects.writeObject(trustProperties);
+            objects.flush();
+
+            var payload = output.toByteArray();
+            output.write(computeHmac(payload));
+
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            var tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), "autogram-tl-snapshot", ".tmp");
+            Files.write(tempFile, output.toByteArray());
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException | GeneralSecurityException e) {
+            Logging.log("Unable to store trusted lists snapshot " + file + ": " + e);
+        }
+    }
+
+    private byte[] computeHmac(byte[] payload) throws GeneralSecurityException {
+        var mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+        return mac.doFinal(payload);
+    }
+
+    private static String countriesKey(List<String> tlCountries) {
+        return String.join(",", tlCountries.stream().sorted().toList());
+    }
+
+    private static byte[] loadOrCreateKey() {
+        var prefs = Preferences.userNodeForPackage(TrustedListsSnapshot.class);
+        var stored = prefs.get("TL_SNAPSHOT_KEY", null);
+        if (stored != null)
+            return Base64.getDecoder().decode(stored);
+
+        var key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        prefs.put("TL_SNAPSHOT_KEY", Base64.getEncoder().encodeToString(key));
+        return key;
+    }
+}
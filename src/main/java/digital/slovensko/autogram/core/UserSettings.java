@@ -22,12 +22,16 @@ public class UserSettings {
     private List<String> trustedList;
     private String customKeystorePath;
     private boolean customKeystorePasswordPrompt;
+    private int signingThreads;
+    private boolean offlineRevocation;
+    private String validationPolicyPath;
 
     private UserSettings(SignatureLevel signatureLevel, String driver, boolean en319132,
             boolean signIndividually, boolean correctDocumentDisplay,
             boolean signaturesValidity, boolean pdfaCompliance,
             boolean serverEnabled, boolean expiredCertsEnabled, List<String> trustedList,
-            String customKeystorePath, boolean customKeystorePassword) {
+            String customKeystorePath, boolean customKeystorePassword, int signingThreads,
+            boolean offlineRevocation, String validationPolicyPath) {
         this.signatureLevel = signatureLevel;
         this.driver = driver;
         this.en319132 = en319132;
@@ -40,6 +44,9 @@ public class UserSettings {
         this.trustedList = trustedList;
         this.customKeystorePath = customKeystorePath;
         this.customKeystorePasswordPrompt = customKeystorePassword;
+        this.signingThreads = signingThreads;
+        this.offlineRevocation = offlineRevocation;
+        this.validationPolicyPath = validationPolicyPath;
     }
 
     public static UserSettings load() {
@@ -57,6 +64,9 @@ public class UserSettings {
         var trustedList = prefs.get("TRUSTED_LIST", "SK,CZ,AT,PL,HU");
         var customKeystorePath = prefs.get("CUSTOM_KEYSTORE_PATH", "");
         var customKeystorePasswordPrompt = prefs.getBoolean("CUSTOM_KEYSTORE_PASSWORD_PROMPT", false);
+        var signingThreads = prefs.getInt("SIGNING_THREADS", Runtime.getRuntime().availableProcessors());
+        var offlineRevocation = prefs.getBoolean("OFFLINE_REVOCATION", false);
+        var validationPolicyPath = prefs.get("VALIDATION_POLICY_PATH", "");
 
         var signatureLevelStringConverter = new SignatureLevelStringConverter();
         var signatureLevel = Arrays
@@ -78,7 +88,10 @@ public class UserSettings {
                 expiredCertsEnabled,
                 trustedList == null ? new ArrayList<>() : new ArrayList<>(List.of(trustedList.split(","))),
                 customKeystorePath,
-                customKeystorePasswordPrompt);
+                customKeystorePasswordPrompt,
+                Math.max(1, signingThreads),
+                offlineRevocation,
+                validationPolicyPath);
     }
 
     public SignatureLevel getSignatureLevel() {
@@ -198,6 +211,33 @@ public class UserSettings {
         save();
     }
 
+    public int getSigningThreads() {
+        return signingThreads;
+    }
+
+    public void setSigningThreads(int value) {
+        signingThreads = value;
+        save();
+    }
+
+    public boolean isOfflineRevocation() {
+        return offlineRevocation;
+    }
+
+    public void setOfflineRevocation(boolean value) {
+        offlineRevocation = value;
+        save();
+    }
+
+    public String getValidationPolicyPath() {
+        return validationPolicyPath;
+    }
+
+    public void setValidationPolicyPath(String value) {
+        validationPolicyPath = value;
+        save();
+    }
+
     private void save() {
         var prefs = Preferences.userNodeForPackage(UserSettings.class);
 
@@ -213,5 +253,8 @@ public class UserSettings {
         prefs.put("TRUSTED_LIST", trustedList.stream().collect(Collectors.joining(",")));
         prefs.put("CUSTOM_KEYSTORE_PATH", customKeystorePath);
         prefs.putBoolean("CUSTOM_KEYSTORE_PASSWORD_PROMPT", customKeystorePasswordPrompt);
+        prefs.putInt("SIGNING_THREADS", signingThreads);
+        prefs.putBoolean("OFFLINE_REVOCATION", offlineRevocation);
+        prefs.put("VALIDATION_POLICY_PATH", validationPolicyPath);
     }
 }
@@ -0,0 +1,44 @@
+package digital.slovensko.autogram.core;
+
+import eu.europa.esig.dss.validation.executor.ValidationLevel;
+
+/**
+ * How deep a document is validated. Callers ask only for what they use, cheaper profiles skip
+ * building certificate chains, downloading revocation data and generating the ETSI report.
+ */
+public enum ValidationProfile {
+    /** Signatures found in the document and their integrity, certificate chains are not built */
+    STRUCTURE_ONLY(ValidationLevel.BASIC_SIGNATURES, false, false),
+
+    /** Certificate chains are built and checked against trusted lists, revocation is not checked */
+    CRYPTO(ValidationLevel.BASIC_SIGNATURES, true, false),
+
+    /** Complete validation with revocation data and timestamps, including the ETSI report */
+    FULL(ValidationLevel.ARCHIVAL_DATA, true, true);
+
+    private final ValidationLevel validationLevel;
+    private final boolean buildsCertificateChains;
+    private final boolean checksRevocation;
+
+    ValidationProfile(ValidationLevel validationLevel, boolean buildsCertificateChains, boolean checksRevocation) {
+        this.validationLevel = validationLevel;
+        this.buildsCertificateChains = buildsCertificateChains;
+        this.checksRevocation = checksRevocation;
+    }
+
+    public ValidationLevel getValidationLevel() {
+        return validationLevel;
+    }
+
+    public boolean buildsCertificateChains() {
+        return buildsCertificateChains;
+    }
+
+    public boolean checksRevocation() {
+        return checksRevocation;
+    }
+
+    public boolean generatesEtsiValidationReport() {
+        return this == FULL;
+    }
+}
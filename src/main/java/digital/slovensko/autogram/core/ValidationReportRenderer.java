@@ -0,0 +1,135 @@
+package digital.slovensko.autogram.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.util.JAXBSource;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import digital.slovensko.autogram.util.XMLUtils;
+import eu.europa.esig.dss.simplereport.SimpleReportXmlDefiner;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * Renders the simple validation report to HTML. The stylesheet is compiled and the page template
+ * split once, each report is transformed from its JAXB model straight into the output stream.
+ * Whitespace around the transformed content is trimmed, same as String.trim() did before.
+ */
+public class ValidationReportRenderer {
+    private static final String CONTENT_PLACEHOLDER = "{{content}}";
+
+    private final Templates templates;
+    private final byte[] header;
+    private final byte[] footer;
+
+    private ValidationReportRenderer(Templates templates, String template) {
+        this.templates = templates;
+
+        var placeholder = template.indexOf(CONTENT_PLACEHOLDER);
+        this.header = template.substring(0, placeholder).getBytes(StandardCharsets.UTF_8);
+        this.footer = template.substring(placeholder + CONTENT_PLACEHOLDER.length()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class Holder {
+        private static final ValidationReportRenderer INSTANCE = load();
+
+        private static ValidationReportRenderer load() {
+            try (var xslt = SignatureValidator.class.getResourceAsStream("simple-report-bootstrap4.xslt");
+                    var template = SignatureValidator.class.getResourceAsStream("simple-report-template.html")) {
+                var templates = XMLUtils.getSecureTransformerFactory().newTemplates(new StreamSource(xslt));
+                return new ValidationReportRenderer(templates, new String(template.readAllBytes(), StandardCharsets.UTF_8));
+
+            } catch (IOException | TransformerException e) {
+                throw new AssertionError("Cannot load validation report stylesheet", e);
+            }
+        }
+    }
+
+    public static ValidationReportRenderer getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public void writeHTML(Reports reports, OutputStream output) throws IOException, TransformerException {
+        JAXBSource source;
+        try {
+            source = new JAXBSource(SimpleReportXmlDefiner.getJAXBContext(),
+                    SimpleReportXmlDefiner.OBJECT_FACTORY.createSimpleReport(reports.getSimpleReportJaxb()));
+        } catch (JAXBException e) {
+            throw new TransformerException(e);
+        }
+
+        output.write(header);
+        templates.newTransformer().transform(source, new StreamResult(new TrimmingOutputStream(output)));
+        output.write(footer);
+        output.flush();
+    }
+
+    public String toHTML(Reports reports) throws IOException, TransformerException {
+        var output = new ByteArrayOutputStream();
+        writeHTML(reports, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Drops leading and trailing whitespace (bytes up to the space character, as String.trim()
+     * does) of the transformed content and keeps the underlying stream open for the footer.
+     */
+    static class TrimmingOutputStream extends FilterOutputStream {
+        private final ByteArrayOutputStream pendingWhitespace = new ByteArrayOutputStream();
+        private boolean started = false;
+
+        TrimmingOutputStream(OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            var end = off + len;
+            var start = off;
+            if (!started) {
+                while (start < end && isWhitespace(b[start]))
+                    start++;
+
+                if (start == end)
+                    return;
+
+                started = true;
+            }
+
+            var contentEnd = end;
+            while (contentEnd > start && isWhitespace(b[contentEnd - 1]))
+                contentEnd--;
+
+            if (contentEnd > start) {
+                pendingWhitespace.writeTo(out);
+                pendingWhitespace.reset();
+                out.write(b, start, contentEnd - start);
+            }
+
+            pendingWhitespace.write(b, contentEnd, end - contentEnd);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the transformer must not close the output before the footer is written
+            flush();
+        }
+
+        private static boolean isWhitespace(byte b) {
+            // multi-byte UTF-8 sequences consist of bytes above 0x7f only
+            return b >= 0 && b <= ' ';
+        }
+    }
+}
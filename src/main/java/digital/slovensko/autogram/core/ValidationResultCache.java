@@ -0,0 +1,118 @@
+package digital.slovensko.autogram.core;
+
+import java.lang.ref.SoftReference;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.policy.ValidationPolicy;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * Reports of recently validated documents, so that the same document opened again, or checked and
+ * then validated, is not validated twice.
+ *
+ * Entries are keyed by the validation profile, the document digest, the validation policy and the
+ * version of trusted sources used, which is 0 for results that do not depend on trusted sources.
+ * At most maxEntries reports are kept, each for MAX_AGE at most because revocation status changes
+ * over time, and they are held by soft references, so large reports are dropped before the
+ * application runs out of memory.
+ */
+public class ValidationResultCache {
+    static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<Key, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public record Key(ValidationProfile profile, String documentDigest, ValidationPolicy policy,
+            long trustedSourcesVersion) {
+        public static Key of(ValidationProfile profile, DSSDocument document, ValidationPolicy policy,
+                long trustedSourcesVersion) {
+            return new Key(profile, document.getDigest(DigestAlgorithm.SHA256), policy, trustedSourcesVersion);
+        }
+    }
+
+    public record Metrics(long hits, long misses, int size) {
+    }
+
+    private record Entry(SoftReference<Reports> reports, Instant created) {
+    }
+
+    public ValidationResultCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    ValidationResultCache(int maxEntries, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > ValidationResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns cached reports for the key, otherwise runs the validation and caches its result.
+     * Validation runs outside of the cache lock.
+     */
+    public Reports get(Key key, Supplier<Reports> validation) {
+        var reports = find(key);
+        if (reports != null) {
+            hits.incrementAndGet();
+            return reports;
+        }
+
+        misses.incrementAndGet();
+        reports = validation.get();
+        if (reports != null) {
+            synchronized (entries) {
+                entries.put(key, new Entry(new SoftReference<>(reports), clock.instant()));
+            }
+        }
+
+        return reports;
+    }
+
+    /**
+     * Drops reports that depend on trusted sources (version other than 0), e.g. after trusted
+     * sources have changed.
+     */
+    public void invalidate() {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.trustedSourcesVersion() != 0);
+        }
+    }
+
+    public Metrics getMetrics() {
+        synchronized (entries) {
+            return new Metrics(hits.get(), misses.get(), entries.size());
+        }
+    }
+
+    private Reports find(Key key) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry == null)
+                return null;
+
+            var reports = entry.reports().get();
+            if (reports == null || entry.created().plus(MAX_AGE).isBefore(clock.instant())) {
+                entries.remove(key);
+                return null;
+            }
+
+            return reports;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package digital.slovensko.autogram.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import digital.slovensko.autogram.core.errors.AutogramException;
+import digital.slovensko.autogram.drivers.FakeTokenDriver;
+import digital.slovensko.autogram.util.DSSUtils;
+import digital.slovensko.autogram.util.Logging;
+import eu.europa.esig.dss.enumerations.MimeTypeEnum;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+
+/**
+ * Signs and validates small synthetic documents with the fake token driver, so that DSS services,
+ * PDFBox, XML/XSLT factories and crypto providers are loaded and initialized before the first real
+ * request comes in.
+ */
+public class WarmUp {
+    private static final String WARM_UP_TEXT = "Autogram warm-up";
+
+    public static void runInBackground(Executor executor, Consumer<Duration> callback) {
+        executor.execute(() -> callback.accept(run()));
+    }
+
+    public static Duration run() {
+        var start = System.nanoTime();
+        try {
+            warmUp();
+        } catch (Exception e) {
+            // warm-up is best effort only, the real request will report any error
+            Logging.log("Warm-up failed: " + e);
+        }
+
+        var duration = Duration.ofNanos(System.nanoTime() - start);
+        Logging.log("Warm-up finished in " + duration.toMillis() + " ms");
+        return duration;
+    }
+
+    static void warmUp() throws Exception {
+        var token = new FakeTokenDriver("warm-up", Path.of("fakeTokenDriver"), false, "warm-up")
+                .createTokenWithPassword(-1, null);
+        var key = new SigningKey(token, token.getKeys().get(0));
+
+        try {
+            var pdf = createPdf();
+            var text = new InMemoryDocument(WARM_UP_TEXT.getBytes(StandardCharsets.UTF_8), "warm-up.txt", MimeTypeEnum.TEXT);
+
+            validate(sign(pdf, SigningParameters.buildForPDF(pdf.getName(), pdf, false, false), key));
+            validate(sign(text, SigningParameters.buildForASiCWithXAdES(text.getName(), text, false), key));
+            validate(sign(text, SigningParameters.buildForASiCWithCAdES(text.getName(), text, false), key));
+        } finally {
+            key.close();
+        }
+    }
+
+    private static DSSDocument createPdf() throws IOException {
+        try (var document = new PDDocument(); var output = new ByteArrayOutputStream()) {
+            var page = new PDPage();
+            document.addPage(page);
+            try (var content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 12);
+                content.newLineAtOffset(72, 720);
+                content.showText(WARM_UP_TEXT);
+                content.endText();
+            }
+
+            document.save(output);
+            return new InMemoryDocument(output.toByteArray(), "warm-up.pdf", MimeTypeEnum.PDF);
+        }
+    }
+
+    private static DSSDocument sign(DSSDocument document, SigningParameters parameters, SigningKey key)
+            throws InterruptedException {
+        var responder = new WarmUpResponder();
+        SigningJob.buildFromRequest(document, parameters, responder).signWithKeyAndRespond(key);
+        return responder.signedDocument;
+    }
+
+    private static void validate(DSSDocument signedDocument) {
+        var validator = DSSUtils.createDocumentValidator(signedDocument);
+        if (validator == null)
+            return;
+
+        validator.setCertificateVerifier(new CommonCertificateVerifier());
+        var policy = SignatureValidator.getInstance().getValidationPolicy();
+        SignatureValidator.getSignatureValidationReportHTML(validator.validateDocument(policy));
+    }
+
+    private static class WarmUpResponder extends Responder {
+        private DSSDocument signedDocument;
+
+        @Override
+        public void onDocumentSigned(SignedDocument signedDocument) {
+            this.signedDocument = signedDocument.getDocument();
+        }
+
+        @Override
+        public void onDocumentSignFailed(AutogramException error) {
+            throw error;
+        }
+    }
+}
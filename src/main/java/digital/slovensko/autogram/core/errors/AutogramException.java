@@ -47,7 +47,8 @@ public class AutogramException extends RuntimeException {
                     return new PINIncorrectException();
                 } else if (cause.getMessage().equals("CKR_PIN_LOCKED")) {
                     return new PINLockedException();
-                } else if (cause.getMessage().equals("Token has been removed")) {
+                } else if (cause.getMessage().equals("Token has been removed") || cause.getMessage().equals("CKR_DEVICE_REMOVED")
+                        || cause.getMessage().equals("CKR_TOKEN_NOT_PRESENT") || cause.getMessage().equals("CKR_SESSION_HANDLE_INVALID")) {
                     return new TokenRemovedException();
                 }
             }
@@ -0,0 +1,7 @@
+package digital.slovensko.autogram.core.errors;
+
+public class ContainerSignatureLevelIsNotValidException extends AutogramException {
+    public ContainerSignatureLevelIsNotValidException(String signatureLevelString) {
+        super("Nastala chyba", "Typ podpisu kontajnera nie je podporovaný", "Zadali ste typ podpisu kontajnera \"" + signatureLevelString + "\", ktorý nie je podporovaný. Podporované sú XAdES_BASELINE_B a CAdES_BASELINE_B");
+    }
+}
@@ -0,0 +1,7 @@
+package digital.slovensko.autogram.core.errors;
+
+public class OptionIsNotAPositiveNumberException extends AutogramException {
+    public OptionIsNotAPositiveNumberException(String option, String value) {
+        super("Nastala chyba", "Zadaná hodnota nie je kladné číslo", "Zadali ste hodnotu \"" + value + "\" pre parameter --" + option + ", ktorá nie je kladné číslo");
+    }
+}
@@ -0,0 +1,7 @@
+package digital.slovensko.autogram.core.errors;
+
+public class ValidationResultFormatIsNotValidException extends AutogramException {
+    public ValidationResultFormatIsNotValidException(String format) {
+        super("Nastala chyba", "Formát výsledkov overenia nie je podporovaný", "Zadali ste formát výsledkov overenia \"" + format + "\", ktorý nie je podporovaný");
+    }
+}
@@ -0,0 +1,81 @@
+package digital.slovensko.autogram.core.revocation;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+/**
+ * Per-user directories for cached revocation data and issuer certificates. Other users must not be
+ * able to read or plant cached data, so the directories are readable and writable only by their
+ * owner and directories owned by someone else are not used.
+ */
+class CacheDirectory {
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    private CacheDirectory() {
+    }
+
+    /**
+     * Directory in the user's cache: %LOCALAPPDATA% on Windows, ~/Library/Caches on macOS and
+     * $XDG_CACHE_HOME or ~/.cache elsewhere.
+     */
+    static Path getDefault(String name) {
+        var os = System.getProperty("os.name", "").toLowerCase();
+        var home = System.getProperty("user.home");
+
+        Path base;
+        if (os.contains("win") && System.getenv("LOCALAPPDATA") != null)
+            base = Path.of(System.getenv("LOCALAPPDATA"));
+        else if (os.contains("mac"))
+            base = Path.of(home, "Library", "Caches");
+        else if (System.getenv("XDG_CACHE_HOME") != null)
+            base = Path.of(System.getenv("XDG_CACHE_HOME"));
+        else
+            base = Path.of(home, ".cache");
+
+        return base.resolve("autogram").resolve(name);
+    }
+
+    /**
+     * Creates the directory accessible only by the current user, or restricts an existing one.
+     * Throws if the directory belongs to another user.
+     */
+    static void createPrivate(Path directory) throws IOException {
+        if (!Files.getFileStore(existingParent(directory)).supportsFileAttributeView("posix")) {
+            // e.g. %LOCALAPPDATA% on Windows, which is already accessible only by its user
+            Files.createDirectories(directory);
+            return;
+        }
+
+        if (directory.getParent() != null)
+            Files.createDirectories(directory.getParent());
+
+        try {
+            Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        } catch (FileAlreadyExistsException e) {
+            if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS))
+                throw new IOException(directory + " is not a directory");
+
+            var user = directory.getFileSystem().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            if (!Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).equals(user))
+                throw new IOException(directory + " is not owned by " + user.getName());
+
+            if (!Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS).equals(OWNER_ONLY))
+                Files.setPosixFilePermissions(directory, OWNER_ONLY);
+        }
+    }
+
+    private static Path existingParent(Path directory) {
+        var existing = directory.toAbsolutePath();
+        while (existing.getParent() != null && !Files.exists(existing))
+            existing = existing.getParent();
+
+        return existing;
+    }
+}
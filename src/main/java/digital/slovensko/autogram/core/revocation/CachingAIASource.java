@@ -0,0 +1,271 @@
+package digital.slovensko.autogram.core.revocation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import digital.slovensko.autogram.util.Logging;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.spi.CertificateExtensionsUtils;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+import eu.europa.esig.dss.spi.x509.aia.AIASource;
+
+/**
+ * AIA source shared by all verifiers. Issuer certificates downloaded from caIssuers URLs are kept
+ * in memory and on disk by URL, so an intermediate missing in many signatures is downloaded once.
+ * Certificates are kept once per digest, URLs publishing the same certificate share its token.
+ *
+ * Concurrent lookups of the same URL share one download. A URL that failed is not asked again for
+ * FAILURE_RETRY_DELAY, certificates downloaded from it before are used meanwhile. In offline-only
+ * mode nothing is downloaded, cached certificates are returned even when they are old.
+ *
+ * At most maxEntries URLs and their failures and MAX_CERTIFICATES certificates are kept in memory,
+ * least recently used first out. Evicted URLs are read again from disk when needed, from a
+ * directory accessible only by its owner.
+ */
+public class CachingAIASource implements AIASource {
+    /** CA certificates published over AIA rarely change, they are downloaded again after a day */
+    static final Duration MAX_AGE = Duration.ofDays(1);
+    static final Duration FAILURE_RETRY_DELAY = Duration.ofMinutes(10);
+    static final int MAX_ENTRIES = 256;
+    static final int MAX_CERTIFICATES = 1024;
+
+    private final DataLoader dataLoader;
+    private final Path directory;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+    private final Map<String, Instant> failures;
+    private final Map<String, CertificateToken> certificates = createLRUMap(MAX_CERTIFICATES);
+    private final Map<String, CompletableFuture<List<CertificateToken>>> downloads = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong downloaded = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean offlineOnly = false;
+
+    public record Metrics(long hits, long downloaded, long coalesced, long failed) {
+    }
+
+    private record Entry(List<CertificateToken> certificates, Instant downloadedAt) {
+    }
+
+    public CachingAIASource(DataLoader dataLoader, Path directory) {
+        this(dataLoader, directory, Clock.systemUTC());
+    }
+
+    CachingAIASource(DataLoader dataLoader, Path directory, Clock clock) {
+        this(dataLoader, directory, clock, MAX_ENTRIES);
+    }
+
+    CachingAIASource(DataLoader dataLoader, Path directory, Clock clock, int maxEntries) {
+        this.dataLoader = dataLoader;
+        this.directory = directory;
+        this.clock = clock;
+        this.entries = createLRUMap(maxEntries);
+        this.failures = createLRUMap(maxEntries);
+    }
+
+    public static CachingAIASource createDefault() {
+        return new CachingAIASource(new CommonsDataLoader(), CacheDirectory.getDefault("aia"));
+    }
+
+    public void setOfflineOnly(boolean offlineOnly) {
+        this.offlineOnly = offlineOnly;
+    }
+
+    @Override
+    public Set<CertificateToken> getCertificatesByAIA(CertificateToken certificateToken) {
+        var result = new LinkedHashSet<CertificateToken>();
+        for (var url : CertificateExtensionsUtils.getCAIssuersAccessUrls(certificateToken)) {
+            try {
+                result.addAll(getCertificates(url));
+            } catch (DSSException e) {
+                Logging.log("Unable to get issuer certificates from " + url + ": " + e.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns certificates published at the URL, from the cache if they are not too old, otherwise
+     * downloads them.
+     */
+    public List<CertificateToken> getCertificates(String url) {
+        var entry = find(url);
+        var now = clock.instant();
+        if (entry != null && (offlineOnly || now.isBefore(entry.downloadedAt().plus(MAX_AGE)))) {
+            hits.incrementAndGet();
+            return entry.certificates();
+        }
+
+        if (offlineOnly)
+            throw new DSSExternalResourceException("Issuer certificates from " + url + " are not available offline");
+
+        var retryAt = failures.get(url);
+        if (retryAt != null && now.isBefore(retryAt))
+            return getStale(url, entry);
+        if (retryAt != null)
+            failures.remove(url, retryAt);
+
+        var future = new CompletableFuture<List<CertificateToken>>();
+        var running = downloads.putIfAbsent(url, future);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(running);
+        }
+
+        try {
+            var data = dataLoader.get(url);
+            if (data == null || data.length == 0)
+                throw new DSSExternalResourceException("No issuer certificates at " + url);
+
+            var downloadedCertificates = intern(DSSUtils.loadCertificateFromP7c(new ByteArrayInputStream(data)));
+            downloaded.incrementAndGet();
+            failures.remove(url);
+            store(url, data, new Entry(downloadedCertificates, now));
+
+            future.complete(downloadedCertificates);
+            return downloadedCertificates;
+
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            failures.put(url, now.plus(FAILURE_RETRY_DELAY));
+            var stale = entry != null ? entry.certificates() : null;
+            if (stale != null) {
+                future.complete(stale);
+                return stale;
+            }
+
+            future.completeExceptionally(e);
+            throw e;
+
+        } finally {
+            downloads.remove(url, future);
+        }
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(hits.get(), downloaded.get(), coalesced.get(), failed.get());
+    }
+
+    private static <K, V> Map<K, V> createLRUMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    private static List<CertificateToken> getStale(String url, Entry entry) {
+        if (entry == null)
+            throw new DSSExternalResourceException("Issuer certificates from " + url + " failed recently");
+
+        return entry.certificates();
+    }
+
+    private static List<CertificateToken> await(CompletableFuture<List<CertificateToken>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces downloaded certificates with already known tokens of the same digest, DSS then
+     * reuses signature checks done on them.
+     */
+    private List<CertificateToken> intern(List<CertificateToken> downloadedCertificates) {
+        var result = new ArrayList<CertificateToken>();
+        for (var certificate : downloadedCertificates)
+            result.add(certificates.computeIfAbsent(certificate.getDSSIdAsString(), digest -> certificate));
+
+        return List.copyOf(result);
+    }
+
+    private Entry find(String url) {
+        var entry = entries.get(url);
+        if (entry != null)
+            return entry;
+
+        var file = fileFor(url);
+        if (!Files.exists(file))
+            return null;
+
+        try {
+            CacheDirectory.createPrivate(directory);
+            var input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)));
+            var downloadedAt = Instant.ofEpochMilli(input.readLong());
+            var data = input.readAllBytes();
+            entry = new Entry(intern(DSSUtils.loadCertificateFromP7c(new ByteArrayInputStream(data))), downloadedAt);
+            entries.put(url, entry);
+            return entry;
+
+        } catch (IOException | DSSException e) {
+            Logging.log("Unable to read cached issuer certificates " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private void store(String url, byte[] data, Entry entry) {
+        entries.put(url, entry);
+
+        try {
+            CacheDirectory.createPrivate(directory);
+
+            var output = new ByteArrayOutputStream();
+            try (var stream = new DataOutputStream(output)) {
+                stream.writeLong(entry.downloadedAt().toEpochMilli());
+                stream.write(data);
+            }
+
+            var tempFile = Files.createTempFile(directory, "aia", ".tmp");
+            Files.write(tempFile, output.toByteArray());
+            Files.move(tempFile, fileFor(url), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            Logging.log("Unable to store issuer certificates from " + url + ": " + e);
+        }
+    }
+
+    private Path fileFor(String url) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + ".bin");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
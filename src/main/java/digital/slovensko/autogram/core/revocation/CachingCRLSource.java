@@ -0,0 +1,75 @@
+package digital.slovensko.autogram.core.revocation;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import eu.europa.esig.dss.crl.CRLValidity;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.revocation.crl.CRL;
+import eu.europa.esig.dss.service.crl.OnlineCRLSource;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+
+/**
+ * CRL source that keeps parsed and verified CRLs until their nextUpdate, so a large CRL is parsed
+ * and its signature checked only once for all certificates it covers. At most MAX_CRLS least
+ * recently used CRLs are kept.
+ */
+public class CachingCRLSource extends OnlineCRLSource {
+    static final int MAX_CRLS = 64;
+
+    private final Map<String, CachedCRL> crls = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCRL> eldest) {
+            return size() > MAX_CRLS || !eldest.getValue().isFresh();
+        }
+    };
+
+    private record CachedCRL(String url, CRLValidity validity) {
+        boolean isFresh() {
+            var now = new Date();
+            return validity.getNextUpdate() != null && !now.before(validity.getThisUpdate())
+                    && now.before(validity.getNextUpdate());
+        }
+    }
+
+    public CachingCRLSource(DataLoader dataLoader) {
+        super(dataLoader);
+    }
+
+    @Override
+    protected RevocationTokenAndUrl<CRL> getRevocationTokenAndUrl(CertificateToken certificateToken,
+            CertificateToken issuerToken, List<String> crlUrls) {
+        var key = issuerToken.getDSSIdAsString() + " " + crlUrls;
+
+        CachedCRL cached;
+        synchronized (crls) {
+            cached = crls.get(key);
+            if (cached != null && !cached.isFresh()) {
+                crls.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null)
+            return new RevocationTokenAndUrl<>(cached.url(), createToken(certificateToken, cached));
+
+        var result = super.getRevocationTokenAndUrl(certificateToken, issuerToken, crlUrls);
+        if (result != null && result.getRevocationToken() instanceof CRLToken token) {
+            synchronized (crls) {
+                crls.put(key, new CachedCRL(result.getUrlString(), token.getCrlValidity()));
+            }
+        }
+
+        return result;
+    }
+
+    private static CRLToken createToken(CertificateToken certificateToken, CachedCRL cached) {
+        var token = new CRLToken(certificateToken, cached.validity());
+        token.setExternalOrigin(RevocationOrigin.EXTERNAL);
+        token.setSourceURL(cached.url());
+        return token;
+    }
+}
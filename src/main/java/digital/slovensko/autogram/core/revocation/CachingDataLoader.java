@@ -0,0 +1,129 @@
+package digital.slovensko.autogram.core.revocation;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bouncycastle.asn1.x509.CertificateList;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPException;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
+import eu.europa.esig.dss.service.http.commons.OCSPDataLoader;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+
+/**
+ * Data loader for revocation sources that goes through the RevocationCache. CRLs are cached by
+ * URL, OCSP responses by URL and request (OnlineOCSPSource does not use nonce by default, so the
+ * request for the same certificate is always the same).
+ */
+public class CachingDataLoader implements DataLoader {
+    private final DataLoader dataLoader;
+    private final RevocationCache cache;
+    private final Function<byte[], RevocationCache.Validity> validityParser;
+
+    public CachingDataLoader(DataLoader dataLoader, RevocationCache cache,
+            Function<byte[], RevocationCache.Validity> validityParser) {
+        this.dataLoader = dataLoader;
+        this.cache = cache;
+        this.validityParser = validityParser;
+    }
+
+    public static CachingDataLoader forCRL(RevocationCache cache) {
+        return new CachingDataLoader(new CommonsDataLoader(), cache, CachingDataLoader::getCRLValidity);
+    }
+
+    public static CachingDataLoader forOCSP(RevocationCache cache) {
+        return new CachingDataLoader(new OCSPDataLoader(), cache, CachingDataLoader::getOCSPValidity);
+    }
+
+    @Override
+    public byte[] get(String url) {
+        return cache.get("GET " + url, () -> dataLoader.get(url), validityParser);
+    }
+
+    @Override
+    public DataAndUrl get(List<String> urlStrings) {
+        DSSException lastError = null;
+        for (var url : urlStrings) {
+            try {
+                var data = get(url);
+                if (data != null && data.length > 0)
+                    return new DataAndUrl(url, data);
+
+            } catch (DSSException e) {
+                lastError = e;
+            }
+        }
+
+        if (lastError != null)
+            throw lastError;
+
+        throw new DSSExternalResourceException("Unable to retrieve data from " + urlStrings);
+    }
+
+    // still abstract in DataLoader of DSS 5.12, so it has to be implemented
+    @SuppressWarnings("deprecation")
+    @Override
+    public byte[] get(String url, boolean refresh) {
+        return get(url);
+    }
+
+    @Override
+    public byte[] post(String url, byte[] content) {
+        return cache.get("POST " + url + " " + sha256(content), () -> dataLoader.post(url, content), validityParser);
+    }
+
+    @Override
+    public void setContentType(String contentType) {
+        dataLoader.setContentType(contentType);
+    }
+
+    static RevocationCache.Validity getCRLValidity(byte[] data) {
+        try {
+            var crl = CertificateList.getInstance(data);
+            var nextUpdate = crl.getNextUpdate() != null ? crl.getNextUpdate().getDate().toInstant() : null;
+            return RevocationCache.Validity.of(crl.getThisUpdate().getDate().toInstant(), nextUpdate);
+
+        } catch (RuntimeException e) {
+            // not a DER CRL, let DSS deal with it and do not cache it
+            return null;
+        }
+    }
+
+    static RevocationCache.Validity getOCSPValidity(byte[] data) {
+        try {
+            var response = new OCSPResp(data);
+            if (response.getStatus() != OCSPResp.SUCCESSFUL)
+                return null;
+
+            var basicResponse = (BasicOCSPResp) response.getResponseObject();
+            RevocationCache.Validity validity = null;
+            for (var single : basicResponse.getResponses()) {
+                var nextUpdate = single.getNextUpdate() != null ? single.getNextUpdate().toInstant() : null;
+                var singleValidity = RevocationCache.Validity.of(single.getThisUpdate().toInstant(), nextUpdate);
+                if (validity == null || singleValidity.nextUpdate().isBefore(validity.nextUpdate()))
+                    validity = singleValidity;
+            }
+
+            return validity;
+
+        } catch (IOException | OCSPException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
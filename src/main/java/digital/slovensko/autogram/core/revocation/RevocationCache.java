@@ -0,0 +1,225 @@
+package digital.slovensko.autogram.core.revocation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import digital.slovensko.autogram.util.Logging;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+
+/**
+ * Downloaded OCSP responses and CRLs kept in memory and on disk until their nextUpdate.
+ *
+ * Files store the downloaded data only, their validity is parsed from the data again when they are
+ * read, so it cannot be extended by editing a file. The directory is accessible only by its owner.
+ *
+ * Concurrent lookups of the same resource share one download. In offline-only mode nothing is
+ * downloaded, cached data is returned even when it is already expired.
+ *
+ * At most maxInMemoryBytes of data are kept in memory, least recently used entries are dropped
+ * first and read again from disk when needed.
+ */
+public class RevocationCache {
+    /** Used when the response does not say when the next one will be issued */
+    static final Duration DEFAULT_VALIDITY = Duration.ofMinutes(30);
+    private static final int MAX_IN_MEMORY_SIZE = 1024 * 1024;
+    static final long MAX_IN_MEMORY_BYTES = 32 * 1024 * 1024;
+
+    private final Path directory;
+    private final Clock clock;
+    private final long maxInMemoryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long inMemoryBytes = 0;
+    private final Map<String, CompletableFuture<byte[]>> downloads = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong downloaded = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private volatile boolean offlineOnly = false;
+
+    public record Validity(Instant thisUpdate, Instant nextUpdate) {
+        public static Validity of(Instant thisUpdate, Instant nextUpdate) {
+            return new Validity(thisUpdate, nextUpdate != null ? nextUpdate : thisUpdate.plus(DEFAULT_VALIDITY));
+        }
+
+        boolean isFresh(Instant now) {
+            return !now.isBefore(thisUpdate) && now.isBefore(nextUpdate);
+        }
+    }
+
+    public record Metrics(long hits, long downloaded, long coalesced) {
+    }
+
+    private record Entry(byte[] data, Validity validity) {
+    }
+
+    public RevocationCache(Path directory) {
+        this(directory, Clock.systemUTC());
+    }
+
+    RevocationCache(Path directory, Clock clock) {
+        this(directory, clock, MAX_IN_MEMORY_BYTES);
+    }
+
+    RevocationCache(Path directory, Clock clock, long maxInMemoryBytes) {
+        this.directory = directory;
+        this.clock = clock;
+        this.maxInMemoryBytes = maxInMemoryBytes;
+    }
+
+    public static RevocationCache createDefault() {
+        return new RevocationCache(CacheDirectory.getDefault("revocation"));
+    }
+
+    public void setOfflineOnly(boolean offlineOnly) {
+        this.offlineOnly = offlineOnly;
+    }
+
+    public boolean isOfflineOnly() {
+        return offlineOnly;
+    }
+
+    /**
+     * Returns cached data for the key if they are still valid, otherwise downloads them. Data for
+     * which validityParser returns null (e.g. unsuccessful OCSP response) are not cached.
+     */
+    public byte[] get(String key, Supplier<byte[]> download, Function<byte[], Validity> validityParser) {
+        var entry = find(key, validityParser);
+        if (entry != null && (offlineOnly || entry.validity().isFresh(clock.instant()))) {
+            hits.incrementAndGet();
+            return entry.data();
+        }
+
+        if (offlineOnly)
+            throw new DSSExternalResourceException("Revocation data for " + key + " are not available offline");
+
+        var future = new CompletableFuture<byte[]>();
+        var running = downloads.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(running);
+        }
+
+        try {
+            var data = download.get();
+            downloaded.incrementAndGet();
+
+            var validity = data == null || data.length == 0 ? null : validityParser.apply(data);
+            if (validity != null)
+                store(key, new Entry(data, validity));
+
+            future.complete(data);
+            return data;
+
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+
+        } finally {
+            downloads.remove(key, future);
+        }
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(hits.get(), downloaded.get(), coalesced.get());
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+
+            throw e;
+        }
+    }
+
+    private Entry find(String key, Function<byte[], Validity> validityParser) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null)
+            return entry;
+
+        var file = fileFor(key);
+        if (!Files.exists(file))
+            return null;
+
+        try {
+            CacheDirectory.createPrivate(directory);
+            var data = Files.readAllBytes(file);
+            var validity = data.length == 0 ? null : validityParser.apply(data);
+            if (validity == null)
+                return null;
+
+            entry = new Entry(data, validity);
+            keepInMemory(key, entry);
+            return entry;
+
+        } catch (IOException e) {
+            Logging.log("Unable to read cached revocation data " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private void store(String key, Entry entry) {
+        keepInMemory(key, entry);
+
+        try {
+            CacheDirectory.createPrivate(directory);
+
+            var tempFile = Files.createTempFile(directory, "revocation", ".tmp");
+            Files.write(tempFile, entry.data());
+            Files.move(tempFile, fileFor(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            Logging.log("Unable to store revocation data for " + key + ": " + e);
+        }
+    }
+
+    private void keepInMemory(String key, Entry entry) {
+        // large CRLs are read from disk when needed, their parsed form is cached by CachingCRLSource
+        synchronized (entries) {
+            var previous = entries.remove(key);
+            if (previous != null)
+                inMemoryBytes -= previous.data().length;
+
+            if (entry.data().length <= MAX_IN_MEMORY_SIZE) {
+                entries.put(key, entry);
+                inMemoryBytes += entry.data().length;
+            }
+
+            var eldest = entries.values().iterator();
+            while (inMemoryBytes > maxInMemoryBytes && eldest.hasNext()) {
+                inMemoryBytes -= eldest.next().data().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + ".bin");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package digital.slovensko.autogram.core.revocation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.x509.ListCertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.MultipleRevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+
+/**
+ * Looks up revocation data of all certificates of a document concurrently, before the document is
+ * validated. DSS validates signatures one after another and waits for the revocation data of each
+ * certificate in turn; once they are in the RevocationCache, those lookups do not block on the
+ * network.
+ *
+ * Each certificate is looked up once, even if several signatures share it, and only if DSS would
+ * look it up as well, i.e. its chain ends in a trusted certificate (unless revocation is checked
+ * for untrusted chains too). Certificates with revocation data embedded in the document (LT and
+ * LTA signatures) are not looked up online. OCSP is tried first, CRL when there is no OCSP
+ * response.
+ */
+public class RevocationPrefetcher {
+    private static final int MAX_CHAIN_LENGTH = 16;
+
+    private final OCSPSource ocspSource;
+    private final CRLSource crlSource;
+    private final ExecutorService executor;
+
+    public RevocationPrefetcher(OCSPSource ocspSource, CRLSource crlSource, ExecutorService executor) {
+        this.ocspSource = ocspSource;
+        this.crlSource = crlSource;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns when all lookups have finished. Failed lookups are ignored, validation will try them
+     * again and report the failure.
+     */
+    public void prefetch(Collection<CertificateToken> certificates,
+            Collection<? extends MultipleRevocationSource<?>> embeddedSources, CertificateVerifier verifier) {
+        var issuers = getIssuersToCheck(certificates, verifier.getTrustedCertSources(),
+                verifier.isCheckRevocationForUntrustedChains());
+
+        var lookups = new ArrayList<CompletableFuture<Void>>();
+        issuers.forEach((certificate, issuer) -> {
+            if (!hasEmbeddedRevocation(certificate, issuer, embeddedSources))
+                lookups.add(CompletableFuture.runAsync(() -> lookup(certificate, issuer), executor));
+        });
+
+        CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Certificates whose revocation status DSS will check, mapped to their issuers.
+     */
+    static Map<CertificateToken, CertificateToken> getIssuersToCheck(Collection<CertificateToken> certificates,
+            ListCertificateSource trustedSources, boolean checkUntrustedChains) {
+        var result = new LinkedHashMap<CertificateToken, CertificateToken>();
+        for (var certificate : certificates) {
+            var chain = new LinkedHashMap<CertificateToken, CertificateToken>();
+            var current = certificate;
+            var trusted = false;
+
+            while (chain.size() < MAX_CHAIN_LENGTH) {
+                if (trustedSources.isTrusted(current)) {
+                    trusted = true;
+                    break;
+                }
+
+                if (current.isSelfSigned())
+                    break;
+
+                var issuer = findIssuer(current, certificates, trustedSources);
+                if (issuer == null || chain.containsKey(current))
+                    break;
+
+                chain.put(current, issuer);
+                current = issuer;
+            }
+
+            if (trusted || checkUntrustedChains)
+                result.putAll(chain);
+        }
+
+        return result;
+    }
+
+    private static CertificateToken findIssuer(CertificateToken certificate, Collection<CertificateToken> certificates,
+            ListCertificateSource trustedSources) {
+        for (var candidate : certificates)
+            if (candidate.getSubject().equals(certificate.getIssuer()) && certificate.isSignedBy(candidate))
+                return candidate;
+
+        for (var candidate : trustedSources.getBySubject(certificate.getIssuer()))
+            if (certificate.isSignedBy(candidate))
+                return candidate;
+
+        return null;
+    }
+
+    private static boolean hasEmbeddedRevocation(CertificateToken certificate, CertificateToken issuer,
+            Collection<? extends MultipleRevocationSource<?>> embeddedSources) {
+        for (var source : embeddedSources) {
+            try {
+                if (!source.getRevocationTokens(certificate, issuer).isEmpty())
+                    return true;
+            } catch (RuntimeException e) {
+                // malformed embedded data, the validation reports it
+            }
+        }
+
+        return false;
+    }
+
+    private void lookup(CertificateToken certificate, CertificateToken issuer) {
+        try {
+            if (ocspSource.getRevocationToken(certificate, issuer) != null)
+                return;
+        } catch (RuntimeException e) {
+            // no OCSP responder or it is not available, try CRL
+        }
+
+        try {
+            crlSource.getRevocationToken(certificate, issuer);
+        } catch (RuntimeException e) {
+            // reported by the validation itself
+        }
+    }
+}
@@ -16,8 +16,8 @@ public class FakeTokenDriver extends TokenDriver {
 
     @Override
     public AbstractKeyStoreTokenConnection createTokenWithPassword(Integer slotId, char[] password) {
-        try {
-            var keystore = Objects.requireNonNull(this.getClass().getResource("FakeTokenDriver.keystore")).getFile();
+        // read as a stream, the keystore is not a plain file inside the packaged runtime image
+        try (var keystore = Objects.requireNonNull(this.getClass().getResourceAsStream("FakeTokenDriver.keystore"))) {
             return new Pkcs12SignatureToken(keystore, new KeyStore.PasswordProtection("".toCharArray()));
         } catch (IOException e) {
             throw new RuntimeException(e);
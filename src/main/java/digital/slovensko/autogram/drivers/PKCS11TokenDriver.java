@@ -12,6 +12,11 @@ public class PKCS11TokenDriver extends TokenDriver {
         super(name, path, needsPassword, shortname);
     }
 
+    @Override
+    public boolean keepsSessionOpen() {
+        return true;
+    }
+
     @Override
     public AbstractKeyStoreTokenConnection createTokenWithPassword(Integer slotId, char[] password) {
         return new Pkcs11SignatureToken(getPath().toString(), new PrefilledPasswordCallback(new KeyStore.PasswordProtection(password)), -1, slotId, null);
@@ -29,7 +29,12 @@ public abstract class TokenDriver {
         return path.toFile().exists();
     }
 
-
+    /**
+     * Whether the logged-in token should be kept open across signing jobs
+     */
+    public boolean keepsSessionOpen() {
+        return false;
+    }
 
     public abstract AbstractKeyStoreTokenConnection createTokenWithPassword(Integer slotId, char[] password);
 
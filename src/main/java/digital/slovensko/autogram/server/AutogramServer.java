@@ -9,6 +9,7 @@ import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
@@ -21,6 +22,11 @@ import digital.slovensko.autogram.core.Autogram;
 import digital.slovensko.autogram.server.filters.AutogramCorsFilter;
 
 public class AutogramServer {
+    /**
+     * Server threads validating documents at a time, the rest is left to signing.
+     */
+    private static final int MAX_CONCURRENT_VALIDATIONS = 4;
+
     private final HttpServer server;
     private final Autogram autogram;
 
@@ -46,6 +52,17 @@ public class AutogramServer {
         server.createContext("/batch", new BatchEndpoint(autogram)).getFilters()
                 .add(new AutogramCorsFilter(List.of("POST", "DELETE")));
 
+        // Validate
+        var validations = new Semaphore(MAX_CONCURRENT_VALIDATIONS);
+        server.createContext("/validate", new ValidationEndpoint(validations)).getFilters()
+                .add(new AutogramCorsFilter("POST"));
+        server.createContext("/validate/multiple", new MultipleValidationEndpoint(validations)).getFilters()
+                .add(new AutogramCorsFilter("POST"));
+
+        // Trusted lists
+        server.createContext("/trusted-lists", new TrustedListsEndpoint()).getFilters()
+                .add(new AutogramCorsFilter(List.of("GET", "POST")));
+
         // Start server
         server.start();
     }
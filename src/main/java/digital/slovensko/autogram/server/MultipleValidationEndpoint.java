@@ -0,0 +1,186 @@
+package digital.slovensko.autogram.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import digital.slovensko.autogram.core.SignatureValidator;
+import digital.slovensko.autogram.core.ValidationProfile;
+import digital.slovensko.autogram.core.errors.AutogramException;
+import digital.slovensko.autogram.server.dto.Document;
+import digital.slovensko.autogram.server.dto.DocumentValidationResult;
+import digital.slovensko.autogram.server.dto.ErrorResponse;
+import digital.slovensko.autogram.server.dto.ValidationReportResponse;
+import digital.slovensko.autogram.server.dto.ValidationRequestBody;
+import digital.slovensko.autogram.server.errors.EmptyBodyException;
+import digital.slovensko.autogram.server.errors.MalformedBodyException;
+import digital.slovensko.autogram.server.errors.RequestValidationException;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * Validates multiple documents in one request and streams the results as newline delimited JSON,
+ * one line per document in the order of the request. Documents are read from the request one by
+ * one and a few of them are validated in the validation pool at a time, so neither the request nor
+ * the response is held in memory as a whole.
+ *
+ * The whole request takes one of the permits shared with the single document endpoint.
+ */
+public class MultipleValidationEndpoint implements HttpHandler {
+    private static final int DOCUMENTS_IN_PROGRESS = 4;
+
+    private final Gson gson = new Gson();
+    private final Semaphore validations;
+
+    private record PendingValidation(int index, String filename, CompletableFuture<Reports> reports) {
+    }
+
+    public MultipleValidationEndpoint(Semaphore validations) {
+        this.validations = validations;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!validations.tryAcquire()) {
+            ValidationEndpoint.respondWithTooManyValidations(exchange);
+            return;
+        }
+
+        boolean detailed;
+        ValidationProfile profile;
+        JsonReader reader;
+        try {
+            detailed = ValidationEndpoint.isDetailedReportRequested(exchange);
+            profile = ValidationEndpoint.getValidationProfile(exchange);
+            reader = new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            startDocuments(reader);
+
+        } catch (AutogramException e) {
+            validations.release();
+            EndpointUtils.respondWithError(ErrorResponse.buildFromException(e), exchange);
+            return;
+
+        } catch (JsonParseException | IOException e) {
+            validations.release();
+            var response = ErrorResponse.buildFromException(new MalformedBodyException(e.getMessage(), e));
+            EndpointUtils.respondWithError(response, exchange);
+            return;
+        }
+
+        try (exchange) {
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            try (var output = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+                validateDocuments(reader, output, detailed, profile);
+            }
+
+        } finally {
+            validations.release();
+        }
+    }
+
+    /**
+     * Reads the request up to the first document, errors found until then are reported with the
+     * response status.
+     */
+    private static void startDocuments(JsonReader reader) throws IOException {
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("documents")) {
+                    reader.beginArray();
+                    return;
+                }
+
+                reader.skipValue();
+            }
+
+        } catch (EOFException e) {
+            throw new EmptyBodyException("Empty body");
+        }
+
+        throw new RequestValidationException("Documents are required", "");
+    }
+
+    /**
+     * Once the response has started, errors are written as results. A malformed document ends the
+     * response, the rest of the request cannot be read.
+     */
+    private void validateDocuments(JsonReader reader, Writer output, boolean detailed, ValidationProfile profile)
+            throws IOException {
+        var pending = new ArrayDeque<PendingValidation>();
+        var index = 0;
+        try {
+            while (reader.hasNext()) {
+                Document document = gson.fromJson(reader, Document.class);
+                pending.add(startValidation(index++, document, profile));
+
+                if (pending.size() >= DOCUMENTS_IN_PROGRESS)
+                    write(output, finishValidation(pending.poll(), detailed));
+            }
+
+        } catch (JsonParseException | IOException e) {
+            while (!pending.isEmpty())
+                write(output, finishValidation(pending.poll(), detailed));
+
+            write(output, DocumentValidationResult.buildFromException(index, null,
+                    new MalformedBodyException(e.getMessage(), e)));
+            return;
+        }
+
+        while (!pending.isEmpty())
+            write(output, finishValidation(pending.poll(), detailed));
+    }
+
+    private static PendingValidation startValidation(int index, Document document, ValidationProfile profile) {
+        if (document == null)
+            return new PendingValidation(index, null, CompletableFuture.failedFuture(
+                    new RequestValidationException("Document is required", "")));
+
+        try {
+            ValidationRequestBody.validateDocument(document);
+            var reports = SignatureValidator.getInstance().validateInBackground(ValidationRequestBody.getDocument(document),
+                    profile);
+            return new PendingValidation(index, document.getFilename(), reports);
+
+        } catch (AutogramException e) {
+            return new PendingValidation(index, document.getFilename(), CompletableFuture.failedFuture(e));
+        }
+    }
+
+    private static DocumentValidationResult finishValidation(PendingValidation validation, boolean detailed) {
+        try {
+            var reports = validation.reports().join();
+            if (reports == null)
+                throw new RequestValidationException("Document is not a signed document", "");
+
+            return DocumentValidationResult.buildFromReport(validation.index(), validation.filename(),
+                    ValidationReportResponse.buildFromReports(reports, detailed));
+
+        } catch (CompletionException e) {
+            var cause = e.getCause() instanceof Exception exception ? exception : e;
+            return DocumentValidationResult.buildFromException(validation.index(), validation.filename(), cause);
+
+        } catch (Exception e) {
+            return DocumentValidationResult.buildFromException(validation.index(), validation.filename(), e);
+        }
+    }
+
+    private void write(Writer output, DocumentValidationResult result) throws IOException {
+        output.write(gson.toJson(result));
+        output.write('\n');
+        output.flush();
+    }
+}
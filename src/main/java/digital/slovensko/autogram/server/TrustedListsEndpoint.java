@@ -0,0 +1,37 @@
+package digital.slovensko.autogram.server;
+
+import java.io.IOException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import digital.slovensko.autogram.core.SignatureValidator;
+import digital.slovensko.autogram.server.dto.ErrorResponse;
+import digital.slovensko.autogram.server.dto.TrustedListsResponse;
+
+/**
+ * GET returns metrics of trusted lists refreshes, POST starts a refresh in the background and
+ * returns the metrics of the last one right away.
+ */
+public class TrustedListsEndpoint implements HttpHandler {
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        var validator = SignatureValidator.getInstance();
+        var refresher = validator.getTrustedListsRefresher();
+
+        try {
+            if (exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+                EndpointUtils.respondWith(TrustedListsResponse.buildFromMetrics(validator.areTLsLoaded(),
+                        refresher.getMetrics(), refresher.isRefreshing()), exchange);
+            } else if (exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+                var refresh = refresher.refreshInBackground();
+                EndpointUtils.respondWith(TrustedListsResponse.buildFromMetrics(validator.areTLsLoaded(),
+                        refresher.getMetrics(), !refresh.isDone()), exchange);
+            } else {
+                exchange.sendResponseHeaders(405, -1);
+            }
+        } catch (Exception e) {
+            EndpointUtils.respondWithError(ErrorResponse.buildFromException(e), exchange);
+        }
+    }
+}
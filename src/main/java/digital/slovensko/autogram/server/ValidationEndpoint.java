@@ -0,0 +1,140 @@
+package digital.slovensko.autogram.server;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+import javax.xml.transform.TransformerException;
+
+import com.google.gson.JsonSyntaxException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import digital.slovensko.autogram.core.SignatureValidator;
+import digital.slovensko.autogram.core.ValidationProfile;
+import digital.slovensko.autogram.core.ValidationReportRenderer;
+import digital.slovensko.autogram.core.errors.AutogramException;
+import digital.slovensko.autogram.server.dto.ErrorResponse;
+import digital.slovensko.autogram.server.dto.ValidationReportResponse;
+import digital.slovensko.autogram.server.dto.ValidationRequestBody;
+import digital.slovensko.autogram.server.errors.MalformedBodyException;
+import digital.slovensko.autogram.server.errors.RequestValidationException;
+import digital.slovensko.autogram.server.errors.TooManyValidationsException;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * Validates signatures of a document. Responds with the simple report as JSON, or rendered to HTML
+ * when the client accepts text/html. With ?report=detailed, the JSON contains the detailed report
+ * as well. With ?profile=structure or ?profile=crypto, the document is validated only as deep as
+ * the ValidationProfile says, the default is full validation.
+ *
+ * Validations share the permits with the multiple documents endpoint. When all of them are taken,
+ * the request is refused right away, so validations never hold all server threads and signing
+ * requests are still served.
+ */
+public class ValidationEndpoint implements HttpHandler {
+    private final Semaphore validations;
+
+    public ValidationEndpoint(Semaphore validations) {
+        this.validations = validations;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!validations.tryAcquire()) {
+            respondWithTooManyValidations(exchange);
+            return;
+        }
+
+        Reports reports;
+        boolean detailed;
+        try {
+            detailed = isDetailedReportRequested(exchange);
+            var profile = getValidationProfile(exchange);
+            var body = EndpointUtils.loadFromJsonExchange(exchange, ValidationRequestBody.class);
+            body.validateDocument();
+
+            reports = SignatureValidator.getInstance().validate(body.getDocument(), profile);
+            if (reports == null)
+                throw new RequestValidationException("Document is not a signed document", "");
+
+        } catch (JsonSyntaxException | IOException e) {
+            var response = ErrorResponse.buildFromException(new MalformedBodyException(e.getMessage(), e));
+            EndpointUtils.respondWithError(response, exchange);
+            return;
+
+        } catch (AutogramException e) {
+            EndpointUtils.respondWithError(ErrorResponse.buildFromException(e), exchange);
+            return;
+
+        } catch (Exception e) {
+            EndpointUtils.respondWithError(ErrorResponse.buildFromException(e), exchange);
+            return;
+
+        } finally {
+            validations.release();
+        }
+
+        if (acceptsHTML(exchange))
+            respondWithHTML(reports, exchange);
+        else
+            EndpointUtils.respondWith(ValidationReportResponse.buildFromReports(reports, detailed), exchange);
+    }
+
+    static boolean isDetailedReportRequested(HttpExchange exchange) throws RequestValidationException {
+        var report = getQueryParameter(exchange, "report");
+        if (report == null || report.equals("simple"))
+            return false;
+
+        if (report.equals("detailed"))
+            return true;
+
+        throw new RequestValidationException("Unsupported report type", "Supported report types are simple and detailed");
+    }
+
+    static ValidationProfile getValidationProfile(HttpExchange exchange) throws RequestValidationException {
+        var profile = getQueryParameter(exchange, "profile");
+        if (profile == null)
+            return ValidationProfile.FULL;
+
+        return switch (profile) {
+            case "structure" -> ValidationProfile.STRUCTURE_ONLY;
+            case "crypto" -> ValidationProfile.CRYPTO;
+            case "full" -> ValidationProfile.FULL;
+            default -> throw new RequestValidationException("Unsupported validation profile",
+                    "Supported validation profiles are structure, crypto and full");
+        };
+    }
+
+    private static String getQueryParameter(HttpExchange exchange, String name) {
+        var query = exchange.getRequestURI().getQuery();
+        if (query == null)
+            return null;
+
+        for (var parameter : query.split("&"))
+            if (parameter.startsWith(name + "="))
+                return parameter.substring(name.length() + 1);
+
+        return null;
+    }
+
+    static void respondWithTooManyValidations(HttpExchange exchange) {
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        EndpointUtils.respondWithError(ErrorResponse.buildFromException(new TooManyValidationsException()), exchange);
+    }
+
+    private static boolean acceptsHTML(HttpExchange exchange) {
+        var accept = exchange.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains("text/html");
+    }
+
+    private static void respondWithHTML(Reports reports, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            ValidationReportRenderer.getInstance().writeHTML(reports, exchange.getResponseBody());
+
+        } catch (TransformerException e) {
+            throw new IOException("Unable to render validation report", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package digital.slovensko.autogram.server.dto;
+
+/**
+ * Result of one document validated by the multiple documents endpoint, either the report or the
+ * error. Documents are identified by their position in the request.
+ */
+public class DocumentValidationResult {
+    private final int index;
+    private final String filename;
+    private final ValidationReportResponse report;
+    private final ErrorResponseBody error;
+
+    private DocumentValidationResult(int index, String filename, ValidationReportResponse report,
+            ErrorResponseBody error) {
+        this.index = index;
+        this.filename = filename;
+        this.report = report;
+        this.error = error;
+    }
+
+    public static DocumentValidationResult buildFromReport(int index, String filename, ValidationReportResponse report) {
+        return new DocumentValidationResult(index, filename, report, null);
+    }
+
+    public static DocumentValidationResult buildFromException(int index, String filename, Exception e) {
+        return new DocumentValidationResult(index, filename, null, ErrorResponse.buildFromException(e).getBody());
+    }
+}
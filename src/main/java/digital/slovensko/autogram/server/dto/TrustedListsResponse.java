@@ -0,0 +1,42 @@
+package digital.slovensko.autogram.server.dto;
+
+import java.time.Instant;
+
+import digital.slovensko.autogram.core.TrustedListsRefresher;
+
+public class TrustedListsResponse {
+    private final boolean loaded;
+    private final boolean refreshing;
+    private final String lastRefresh;
+    private final String lastSuccessfulRefresh;
+    private final long lastRefreshDurationMillis;
+    private final int changedTLs;
+    private final int failedTLs;
+    private final long refreshes;
+    private final long failures;
+    private final int consecutiveFailures;
+    private final String lastError;
+
+    private TrustedListsResponse(boolean loaded, TrustedListsRefresher.Metrics metrics, boolean refreshing) {
+        this.loaded = loaded;
+        this.refreshing = refreshing;
+        this.lastRefresh = format(metrics.lastAttempt());
+        this.lastSuccessfulRefresh = format(metrics.lastSuccess());
+        this.lastRefreshDurationMillis = metrics.lastDuration().toMillis();
+        this.changedTLs = metrics.lastChangedTLs();
+        this.failedTLs = metrics.lastFailedTLs();
+        this.refreshes = metrics.refreshes();
+        this.failures = metrics.failures();
+        this.consecutiveFailures = metrics.consecutiveFailures();
+        this.lastError = metrics.lastError();
+    }
+
+    public static TrustedListsResponse buildFromMetrics(boolean loaded, TrustedListsRefresher.Metrics metrics,
+            boolean refreshing) {
+        return new TrustedListsResponse(loaded, metrics, refreshing);
+    }
+
+    private static String format(Instant instant) {
+        return instant == null ? null : instant.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package digital.slovensko.autogram.server.dto;
+
+import java.util.Date;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+
+import eu.europa.esig.dss.jaxb.object.Message;
+import eu.europa.esig.dss.simplereport.SimpleReport;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class ValidationReportResponse {
+    private static final Gson detailedReportGson = new GsonBuilder()
+            .registerTypeAdapter(Date.class, (JsonSerializer<Date>) (date, type, context) ->
+                    new JsonPrimitive(format(date)))
+            .create();
+
+    private final String validationTime;
+    private final int signaturesCount;
+    private final int validSignaturesCount;
+    private final List<Signature> signatures;
+    private final JsonElement detailedReport;
+
+    private record Signature(String id, String signedBy, String signatureFormat, String signingTime,
+            String indication, String subIndication, String signatureQualification, List<String> errors) {
+    }
+
+    private ValidationReportResponse(String validationTime, int signaturesCount, int validSignaturesCount,
+            List<Signature> signatures, JsonElement detailedReport) {
+        this.validationTime = validationTime;
+        this.signaturesCount = signaturesCount;
+        this.validSignaturesCount = validSignaturesCount;
+        this.signatures = signatures;
+        this.detailedReport = detailedReport;
+    }
+
+    /**
+     * Summary of the simple report, with the whole DSS detailed report if requested.
+     */
+    public static ValidationReportResponse buildFromReports(Reports reports, boolean detailed) {
+        var simple = reports.getSimpleReport();
+        var signatures = simple.getSignatureIdList().stream().map(id -> buildSignature(simple, id)).toList();
+        var detailedReport = detailed ? detailedReportGson.toJsonTree(reports.getDetailedReportJaxb()) : null;
+
+        return new ValidationReportResponse(format(simple.getValidationTime()), simple.getSignaturesCount(),
+                simple.getValidSignaturesCount(), signatures, detailedReport);
+    }
+
+    private static Signature buildSignature(SimpleReport simple, String id) {
+        return new Signature(id, simple.getSignedBy(id), toString(simple.getSignatureFormat(id)),
+                format(simple.getSigningTime(id)), toString(simple.getIndication(id)),
+                toString(simple.getSubIndication(id)), toString(simple.getSignatureQualification(id)),
+                simple.getAdESValidationErrors(id).stream().map(Message::getValue).toList());
+    }
+
+    private static String format(Date date) {
+        return date == null ? null : date.toInstant().toString();
+    }
+
+    private static String toString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package digital.slovensko.autogram.server.dto;
+
+import java.util.Base64;
+
+import digital.slovensko.autogram.server.errors.MalformedBodyException;
+import digital.slovensko.autogram.server.errors.RequestValidationException;
+import eu.europa.esig.dss.model.InMemoryDocument;
+
+public class ValidationRequestBody {
+    private final Document document;
+
+    public ValidationRequestBody(Document document) {
+        this.document = document;
+    }
+
+    public void validateDocument() throws RequestValidationException {
+        if (document == null)
+            throw new RequestValidationException("Document is required", "");
+
+        validateDocument(document);
+    }
+
+    public InMemoryDocument getDocument() throws MalformedBodyException {
+        return getDocument(document);
+    }
+
+    public static void validateDocument(Document document) throws RequestValidationException {
+        if (document.getContent() == null)
+            throw new RequestValidationException("Document.Content is required", "");
+    }
+
+    public static InMemoryDocument getDocument(Document document) throws MalformedBodyException {
+        try {
+            return new InMemoryDocument(Base64.getDecoder().decode(document.getContent()), document.getFilename());
+        } catch (IllegalArgumentException e) {
+            throw new MalformedBodyException("Base64 decoding failed", "Invalid document content");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package digital.slovensko.autogram.server.errors;
+
+import digital.slovensko.autogram.core.errors.AutogramException;
+
+public class TooManyValidationsException extends AutogramException {
+    public TooManyValidationsException() {
+        super("Too many requests", "Too many validations are running", "Try again later");
+    }
+}
@@ -2,6 +2,7 @@ package digital.slovensko.autogram.ui;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,8 +20,9 @@ import eu.europa.esig.dss.enumerations.SignatureLevel;
 public class BatchGuiFileResponder extends BatchResponder {
     private final Autogram autogram;
     private final List<File> list;
-    private final Map<File, File> targetFiles = new HashMap<>();
-    private final Map<File, AutogramException> errors = new HashMap<>();
+    // jobs may finish on several signing threads at once
+    private final Map<File, File> targetFiles = Collections.synchronizedMap(new HashMap<>());
+    private final Map<File, AutogramException> errors = Collections.synchronizedMap(new HashMap<>());
     private boolean uiNotifiedOnAllFilesSigned = false;
     private final TargetPath targetPath;
     private final boolean checkPDFACompliance;
@@ -68,7 +70,7 @@ public class BatchGuiFileResponder extends BatchResponder {
         }
     }
 
-    private void onAllFilesSigned(Batch batch) { // synchronized
+    private synchronized void onAllFilesSigned(Batch batch) {
         Logging.log("onAllFilesSigned " + batch.isAllProcessed() + " " + uiNotifiedOnAllFilesSigned);
         if (batch.isAllProcessed() && !uiNotifiedOnAllFilesSigned) {
             uiNotifiedOnAllFilesSigned = true;
@@ -13,6 +13,7 @@ public class SaveFileResponder extends Responder {
     private final File file;
     private final Autogram autogram;
     private final TargetPath targetPathBuilder;
+    private volatile File savedFile;
 
     public SaveFileResponder(File file, Autogram autogram, boolean isSignatureLevelPades) {
         this(file, autogram, TargetPath.fromSource(file.toPath(), isSignatureLevelPades));
@@ -28,12 +29,20 @@ public class SaveFileResponder extends Responder {
         try {
             var targetFile = targetPathBuilder.getSaveFilePath(file.toPath());
             signedDocument.getDocument().save(targetFile.toString());
-            autogram.onDocumentSaved(targetFile.toFile());
+            savedFile = targetFile.toFile();
+            autogram.onDocumentSaved(savedFile);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Target the signed document was saved to, null until it is saved.
+     */
+    public File getSavedFile() {
+        return savedFile;
+    }
+
     public void onDocumentSignFailed(AutogramException error) {
         // TODO tu je zozrany error
         System.err.println("Sign failed error occurred: " + error.toString());
@@ -0,0 +1,187 @@
+package digital.slovensko.autogram.ui.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import digital.slovensko.autogram.core.SignatureValidator;
+import digital.slovensko.autogram.util.DSSUtils;
+import eu.europa.esig.dss.model.FileDocument;
+
+/**
+ * Validates all files of a directory tree and writes one result line per file. Files are validated
+ * in parallel by the shared SignatureValidator, so they all use its trusted lists, revocation cache
+ * and validation policy.
+ *
+ * Each line is written and flushed as soon as its file is validated, so the output is a checkpoint
+ * of the run. An interrupted run is resumed by skipping the files that are already in the output.
+ * The directory tree is walked lazily and only a few files per thread are waiting for validation,
+ * so memory does not grow with the number of files.
+ */
+public class BulkValidation {
+    private static final Duration STATISTICS_INTERVAL = Duration.ofSeconds(10);
+    private static final int QUEUED_FILES_PER_THREAD = 2;
+
+    private final ValidationResultFormat format;
+    private final int threads;
+    private final PrintStream log;
+
+    private final AtomicInteger validated = new AtomicInteger();
+    private final AtomicInteger notSigned = new AtomicInteger();
+    private final AtomicInteger notValid = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private int skipped;
+    private long startTime;
+    private long lastStatisticsTime;
+    private volatile IOException writeError;
+
+    public BulkValidation(ValidationResultFormat format, int threads, PrintStream log) {
+        this.format = format;
+        this.threads = threads;
+        this.log = log;
+    }
+
+    /**
+     * Validates the source file, or all files in the source directory and its subdirectories, except
+     * the already validated ones. Results are named by their path relative to the source directory.
+     */
+    public void run(Path source, Set<String> alreadyValidated, Writer output, boolean writeHeader)
+            throws IOException, InterruptedException {
+        startTime = lastStatisticsTime = System.nanoTime();
+        if (writeHeader && format.getHeader() != null)
+            writeLine(output, format.getHeader());
+
+        var executor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "autogram-bulk-validation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var queued = new Semaphore(threads * QUEUED_FILES_PER_THREAD);
+
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    if (!attributes.isRegularFile())
+                        return FileVisitResult.CONTINUE;
+
+                    var name = getName(source, file);
+                    if (alreadyValidated.contains(name)) {
+                        skipped++;
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    try {
+                        queued.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return FileVisitResult.TERMINATE;
+                    }
+
+                    executor.execute(() -> {
+                        try {
+                            write(output, validate(file, name));
+                        } finally {
+                            queued.release();
+                        }
+                    });
+
+                    printStatisticsIfDue();
+                    return writeError == null ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    write(output, ValidationResult.fromError(getName(source, file), e));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        if (Thread.interrupted())
+            throw new InterruptedException();
+
+        if (writeError != null)
+            throw writeError;
+
+        printStatistics("Validated %d files in %d s".formatted(validated.get(), elapsed().toSeconds()));
+    }
+
+    private ValidationResult validate(Path file, String name) {
+        try {
+            var documentValidator = DSSUtils.createDocumentValidator(new FileDocument(file.toFile()));
+            if (documentValidator == null)
+                return ValidationResult.withoutSignatures(name);
+
+            return ValidationResult.fromReports(name, SignatureValidator.getInstance().validate(documentValidator));
+
+        } catch (Exception e) {
+            return ValidationResult.fromError(name, e);
+        }
+    }
+
+    private void write(Writer output, ValidationResult result) {
+        validated.incrementAndGet();
+        if (result.isError())
+            errors.incrementAndGet();
+        else if (result.signatures() == 0)
+            notSigned.incrementAndGet();
+        else if (!result.isValid())
+            notValid.incrementAndGet();
+
+        try {
+            writeLine(output, format.format(result));
+        } catch (IOException e) {
+            synchronized (this) {
+                if (writeError == null)
+                    writeError = e;
+            }
+        }
+    }
+
+    private static void writeLine(Writer output, String line) throws IOException {
+        synchronized (output) {
+            output.write(line);
+            output.write(System.lineSeparator());
+            output.flush();
+        }
+    }
+
+    private static String getName(Path source, Path file) {
+        return file.equals(source) ? file.getFileName().toString() : source.relativize(file).toString();
+    }
+
+    private void printStatisticsIfDue() {
+        var now = System.nanoTime();
+        if (now - lastStatisticsTime < STATISTICS_INTERVAL.toNanos())
+            return;
+
+        lastStatisticsTime = now;
+        printStatistics("Validated %d files".formatted(validated.get()));
+    }
+
+    private void printStatistics(String progress) {
+        var seconds = Math.max(elapsed().toMillis(), 1) / 1000.0;
+        log.println("%s (%.1f files/s), not signed: %d, not valid: %d, errors: %d, skipped: %d".formatted(
+                progress, validated.get() / seconds, notSigned.get(), notValid.get(), errors.get(), skipped));
+    }
+
+    private Duration elapsed() {
+        return Duration.ofNanos(System.nanoTime() - startTime);
+    }
+}
@@ -3,16 +3,36 @@ package digital.slovensko.autogram.ui.cli;
 import digital.slovensko.autogram.core.Autogram;
 import digital.slovensko.autogram.core.CliParameters;
 import digital.slovensko.autogram.core.DefaultDriverDetector;
+import digital.slovensko.autogram.core.SignatureValidator;
 import digital.slovensko.autogram.core.SigningJob;
 import digital.slovensko.autogram.core.errors.SourceNotDefindedException;
 import digital.slovensko.autogram.core.TargetPath;
+import digital.slovensko.autogram.core.UserSettings;
+import digital.slovensko.autogram.core.WarmUp;
 import digital.slovensko.autogram.core.errors.AutogramException;
 import digital.slovensko.autogram.core.errors.SourceDoesNotExistException;
+import digital.slovensko.autogram.core.errors.TargetAlreadyExistsException;
+import digital.slovensko.autogram.core.errors.TargetDirectoryDoesNotExistException;
+import digital.slovensko.autogram.core.errors.UnrecognizedException;
 import digital.slovensko.autogram.ui.SaveFileResponder;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import org.apache.commons.cli.CommandLine;
 
@@ -22,6 +42,10 @@ public class CliApp {
 
         try {
             var params = new CliParameters(cmd);
+            if (params.shouldWarmUp())
+                WarmUp.runInBackground(CliApp::startDaemonThread,
+                        duration -> System.out.println("Warm-up finished in %d ms".formatted(duration.toMillis())));
+
             var autogram = new Autogram(ui, false, params.getDriver() != null ?
                         () -> Collections.singletonList(params.getDriver())
                         : new DefaultDriverDetector("", false),
@@ -33,28 +57,253 @@ public class CliApp {
             if (!params.getSource().exists())
                 throw new SourceDoesNotExistException();
 
-            var targetPathBuilder = TargetPath.fromParams(params);
-            targetPathBuilder.mkdirIfDir();
+            if (params.shouldValidate()) {
+                validate(params);
+                return;
+            }
+
+            if (params.getPoolSlotIds() != null) {
+                autogram.pickSigningKeyPoolAndThen(params.getPoolSlotIds(), ui::setActiveKey);
+                if (!ui.hasActiveKey())
+                    return;
+            }
 
             var source = params.getSource();
-            var sourceList = source.isDirectory() ? source.listFiles() : new File[] { source };
-            var jobs = Arrays.stream(sourceList).filter(f -> f.isFile())
-                    .map(f -> SigningJob.buildFromFile(f, new SaveFileResponder(f, autogram, targetPathBuilder),
-                            params.shouldCheckPDFACompliance(), params.pdfSignatureLevel(), params.shouldSignAsEn319132()))
-                    .toList();
-            if (params.shouldCheckPDFACompliance()) {
-                jobs.forEach(job -> {
-                    System.out.println("Checking PDF/A file compatibility for " + job.getDocument().getName());
-                    autogram.checkPDFACompliance(job);
-                });
+            if (params.shouldSignAsContainer()) {
+                signAsContainer(ui, autogram, params);
+                return;
             }
 
-            ui.setJobsCount(jobs.size());
+            var targetPathBuilder = TargetPath.fromParams(params);
+            targetPathBuilder.mkdirIfDir();
+
+            // jobs are built one file at a time while the source is walked, never all of them at once
+            var allSourceFiles = new SourceFiles(source.toPath(), params.isRecursive(), targetPathBuilder.getTargetDirectory());
+            try (var journalOutput = openJournal(params, targetPathBuilder)) {
+                var journal = new SigningJournal(source.toPath(), params.shouldResume() && source.isDirectory()
+                        ? SigningJournal.read(SigningJournal.getPath(targetPathBuilder.getTargetDirectory()))
+                        : Map.of(), journalOutput);
+                var sourceFiles = allSourceFiles.filter(
+                        params.shouldRetryFailedOnly() ? journal::hasFailed : file -> !journal.isSigned(file));
+
+                if (params.shouldCheckPDFACompliance()) {
+                    // all files are checked before any is signed, the same walk counts them
+                    var count = new long[] { 0 };
+                    sourceFiles.forEach(file -> {
+                        count[0]++;
+                        var job = buildJob(file, new SaveFileResponder(file.toFile(), autogram, targetPathBuilder), params);
+                        System.out.println("Checking PDF/A file compatibility for " + job.getDocument().getName());
+                        autogram.checkPDFACompliance(job);
+                    });
+                    setJobsCount(ui, params, count[0]);
+                } else {
+                    countInBackground(ui, params, sourceFiles);
+                }
+                ui.startJobs();
 
-            jobs.forEach(autogram::sign);
+                Consumer<Path> signFile = file -> {
+                    var targetPath = targetPathBuilder.forSubdirectory(allSourceFiles.getRelativeDirectory(file));
+                    var responder = new SaveFileResponder(file.toFile(), autogram, targetPath);
+                    SigningJob job;
+                    try {
+                        targetPath.mkdirIfDir();
+                        job = buildJob(file, responder, params);
+                        autogram.sign(job);
+                    } catch (RuntimeException e) {
+                        journal.failed(file, e);
+                        throw e;
+                    }
+
+                    if (responder.getSavedFile() != null)
+                        journal.signed(file, responder.getSavedFile().toPath(), job.getDocument());
+                };
+                if (params.getJobs() > 1)
+                    signInParallel(ui, autogram, sourceFiles, signFile, params.getJobs());
+                else
+                    sourceFiles.forEach(signFile);
+            }
+            autogram.closeTokenSessions();
+            ui.printSummary();
 
         } catch (AutogramException e) {
             ui.showError(e);
+        } catch (IOException e) {
+            ui.showError(new UnrecognizedException(e));
+        }
+    }
+
+    private static SigningJob buildJob(Path file, SaveFileResponder responder, CliParameters params) {
+        return SigningJob.buildFromFile(file.toFile(), responder, params.shouldCheckPDFACompliance(),
+                params.pdfSignatureLevel(), params.shouldSignAsEn319132());
+    }
+
+    /**
+     * Journal is kept only for source directories, a resumed run appends to it.
+     */
+    private static Writer openJournal(CliParameters params, TargetPath targetPath) throws IOException {
+        if (!params.getSource().isDirectory())
+            return Writer.nullWriter();
+
+        var journal = SigningJournal.getPath(targetPath.getTargetDirectory());
+        var append = params.shouldResume() && Files.isRegularFile(journal);
+        var output = Files.newBufferedWriter(journal, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        if (append && !endsWithLineBreak(journal.toFile()))
+            output.newLine();
+
+        return output;
+    }
+
+    /**
+     * Counting walks the whole source and reads attributes of each file, the first files are signed
+     * meanwhile and the progress shows the total once it is known.
+     */
+    private static void countInBackground(CliUI ui, CliParameters params, SourceFiles sourceFiles) {
+        var thread = new Thread(() -> {
+            try {
+                setJobsCount(ui, params, sourceFiles.count());
+            } catch (IOException e) {
+                // reported by the signing walk
+            }
+        }, "autogram-cli-count");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void setJobsCount(CliUI ui, CliParameters params, long count) {
+        ui.setJobsCount(Math.toIntExact(count));
+        if (params.shouldResume()) {
+            synchronized (System.out) {
+                System.out.println("Resuming signing, %d files left".formatted(count));
+            }
+        }
+    }
+
+    private static void startDaemonThread(Runnable runnable) {
+        var thread = new Thread(runnable, "autogram-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void validate(CliParameters params) {
+        var userSettings = UserSettings.load();
+        var validator = SignatureValidator.getInstance();
+        validator.setRevocationOfflineOnly(userSettings.isOfflineRevocation());
+        validator.setValidationPolicyPath(userSettings.getValidationPolicyPath());
+
+        System.err.println("Loading trusted lists");
+        validator.initialize(Executors.newFixedThreadPool(8, runnable -> {
+            var thread = new Thread(runnable, "autogram-trusted-lists");
+            thread.setDaemon(true);
+            return thread;
+        }), userSettings.getTrustedList());
+
+        if (params.shouldRefreshTrustedLists()) {
+            var metrics = validator.getTrustedListsRefresher().refreshNow();
+            if (metrics.lastError() != null)
+                System.err.println("Unable to refresh trusted lists, using cached ones: " + metrics.lastError());
+            else
+                System.err.println("Trusted lists refreshed in %d s, %d changed, %d failed".formatted(
+                        metrics.lastDuration().toSeconds(), metrics.lastChangedTLs(), metrics.lastFailedTLs()));
+        }
+
+        var format = params.getValidationResultFormat();
+        var validation = new BulkValidation(format, params.getJobs(), System.err);
+        try {
+            if (params.getTarget() == null) {
+                var output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                validation.run(params.getSource().toPath(), Set.of(), output, true);
+                return;
+            }
+
+            var target = new File(params.getTarget());
+            var resume = params.shouldResume() && target.isFile();
+            if (target.exists() && !resume && !params.isForce())
+                throw new TargetAlreadyExistsException();
+
+            var targetDirectory = target.getAbsoluteFile().getParentFile();
+            if (!targetDirectory.exists() && (!params.shouldMakeParentDirectories() || !targetDirectory.mkdirs()))
+                throw new TargetDirectoryDoesNotExistException();
+
+            var alreadyValidated = resume ? getValidatedFiles(target, format) : Set.<String>of();
+            try (var output = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (resume && !endsWithLineBreak(target))
+                    output.newLine();
+
+                validation.run(params.getSource().toPath(), alreadyValidated, output, !resume);
+            }
+
+        } catch (IOException e) {
+            throw new UnrecognizedException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Set<String> getValidatedFiles(File results, ValidationResultFormat format) throws IOException {
+        var files = new HashSet<String>();
+        try (var lines = Files.lines(results.toPath(), StandardCharsets.UTF_8)) {
+            lines.map(format::parseFile).filter(file -> file != null).forEach(files::add);
         }
+
+        return files;
+    }
+
+    /**
+     * The last line of a killed run may be incomplete, new results must not be appended to it.
+     */
+    private static boolean endsWithLineBreak(File file) throws IOException {
+        try (var randomAccessFile = new RandomAccessFile(file, "r")) {
+            if (randomAccessFile.length() == 0)
+                return true;
+
+            randomAccessFile.seek(randomAccessFile.length() - 1);
+            return randomAccessFile.read() == '\n';
+        }
+    }
+
+    /**
+     * Each file is read, signed and saved on a work thread of the UI. Keys that sign one document
+     * at a time (cards) are taken in turns, other files are prepared and saved meanwhile. Walking
+     * the source waits when a few files per thread are already waiting.
+     */
+    private static void signInParallel(CliUI ui, Autogram autogram, SourceFiles sourceFiles, Consumer<Path> signFile,
+            int threads) throws IOException {
+        if (!ui.hasActiveKey())
+            autogram.pickSigningKeyAndThen(ui::setActiveKey);
+
+        if (!ui.hasActiveKey())
+            return;
+
+        if (!ui.getActiveKey().supportsConcurrentSigning())
+            System.out.println("Selected key signs one file at a time, files are prepared and saved in parallel");
+
+        ui.startWorkers(threads);
+        try {
+            sourceFiles.forEach(file -> ui.onWorkThreadDo(() -> signFile.accept(file)));
+        } finally {
+            ui.awaitWorkers();
+        }
+    }
+
+    private static void signAsContainer(CliUI ui, Autogram autogram, CliParameters params) {
+        var source = params.getSource();
+        var sourceList = source.isDirectory() ? source.listFiles() : new File[] { source };
+        var files = Arrays.stream(sourceList).filter(f -> f.isFile()).sorted().toList();
+        if (files.isEmpty())
+            throw new SourceDoesNotExistException(source.toString());
+
+        var targetPathBuilder = TargetPath.fromParamsForContainer(params);
+        targetPathBuilder.mkdirIfDir();
+
+        var job = SigningJob.buildFromFilesAsContainer(files, new SaveFileResponder(source, autogram, targetPathBuilder),
+                params.containerSignatureLevel(), params.shouldSignAsEn319132());
+
+        ui.setJobsCount(1);
+        ui.startJobs();
+        autogram.sign(job);
+        autogram.closeTokenSessions();
+        ui.printSummary();
     }
 }
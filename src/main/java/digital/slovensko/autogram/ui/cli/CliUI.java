@@ -4,6 +4,10 @@ import static digital.slovensko.autogram.util.DSSUtils.parseCN;
 
 import java.io.File;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -21,6 +25,8 @@ import digital.slovensko.autogram.core.errors.NoDriversDetectedException;
 import digital.slovensko.autogram.core.errors.NoKeysDetectedException;
 import digital.slovensko.autogram.core.errors.PDFAComplianceException;
 import digital.slovensko.autogram.core.errors.PDFSignatureLevelIsNotValidException;
+import digital.slovensko.autogram.core.errors.ContainerSignatureLevelIsNotValidException;
+import digital.slovensko.autogram.core.errors.OptionIsNotAPositiveNumberException;
 import digital.slovensko.autogram.core.errors.PINIncorrectException;
 import digital.slovensko.autogram.core.errors.PINLockedException;
 import digital.slovensko.autogram.core.errors.SigningCanceledByUserException;
@@ -35,6 +41,8 @@ import digital.slovensko.autogram.core.errors.TokenDriverDoesNotExistException;
 import digital.slovensko.autogram.core.errors.TokenNotRecognizedException;
 import digital.slovensko.autogram.core.errors.TokenRemovedException;
 import digital.slovensko.autogram.core.errors.UnableToCreateDirectoryException;
+import digital.slovensko.autogram.core.errors.UnrecognizedException;
+import digital.slovensko.autogram.core.errors.ValidationResultFormatIsNotValidException;
 import digital.slovensko.autogram.core.visualization.Visualization;
 import digital.slovensko.autogram.drivers.TokenDriver;
 import digital.slovensko.autogram.ui.BatchUiResult;
@@ -43,9 +51,19 @@ import digital.slovensko.autogram.ui.gui.IgnorableException;
 import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
 
 public class CliUI implements UI {
+    private static final int QUEUED_JOBS_PER_THREAD = 2;
+
     SigningKey activeKey;
-    int nJobsSigned = 1;
-    int nJobsTotal = 0;
+    AtomicInteger nJobsSigned = new AtomicInteger(1);
+    /** Known only after the source is counted, which runs while the first files are signed */
+    volatile int nJobsTotal = -1;
+    private final AtomicInteger nJobsSucceeded = new AtomicInteger();
+    private final AtomicInteger nJobsFailed = new AtomicInteger();
+    private long startTime = System.nanoTime();
+    /** Runs work callbacks when started with startWorkers, otherwise they run on the calling thread */
+    private ExecutorService workExecutor;
+    private Semaphore queuedWork;
+    private final ThreadLocal<Boolean> isWorkThread = ThreadLocal.withInitial(() -> false);
 
     @Override
     public void startSigning(SigningJob job, Autogram autogram) {
@@ -61,15 +79,82 @@ public class CliUI implements UI {
     }
 
     private void sign(SigningJob job, Autogram autogram) {
-        System.out.println("Starting signing file \"%s\" [%d/%d]".formatted(job.getDocument().getName(), nJobsSigned++,
-                nJobsTotal));
+        // numbers are printed in order even when files are signed in parallel
+        synchronized (System.out) {
+            var total = nJobsTotal;
+            System.out.println("Starting signing file \"%s\" [%d/%s]".formatted(job.getDocument().getName(),
+                    nJobsSigned.getAndIncrement(), total < 0 ? "?" : String.valueOf(total)));
+        }
         autogram.sign(job, activeKey);
     }
 
+    public void setActiveKey(SigningKey key) {
+        activeKey = key;
+    }
+
+    public boolean hasActiveKey() {
+        return activeKey != null;
+    }
+
+    public SigningKey getActiveKey() {
+        return activeKey;
+    }
+
     public void setJobsCount(int nJobsTotal) {
         this.nJobsTotal = nJobsTotal;
     }
 
+    /**
+     * Starts measuring the time of the signing for the summary.
+     */
+    public void startJobs() {
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Runs work callbacks on the given number of threads. Only a few callbacks per thread wait for
+     * a thread, onWorkThreadDo blocks the caller when the queue is full. Callbacks on the work
+     * threads run their own work callbacks inline. A failed callback is reported and the others
+     * go on.
+     *
+     * Must be called after the signing key is picked, picking expects its work callbacks to finish
+     * before it returns.
+     */
+    public void startWorkers(int threads) {
+        queuedWork = new Semaphore(threads * QUEUED_JOBS_PER_THREAD);
+        workExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(() -> {
+                isWorkThread.set(true);
+                runnable.run();
+            }, "autogram-cli-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Waits until all work callbacks finish, later callbacks run on the calling thread again.
+     */
+    public void awaitWorkers() {
+        if (workExecutor == null)
+            return;
+
+        workExecutor.shutdown();
+        try {
+            workExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            workExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        workExecutor = null;
+    }
+
+    public void printSummary() {
+        var seconds = Math.max((System.nanoTime() - startTime) / 1_000_000, 1) / 1000.0;
+        System.out.println("Signed %d files in %.1f s (%.1f files/s), failed: %d".formatted(nJobsSucceeded.get(),
+                seconds, nJobsSucceeded.get() / seconds, nJobsFailed.get()));
+    }
+
     @Override
     public void startBatch(Batch batch, Autogram autogram, Consumer<SigningKey> callback) {
         // TODO Auto-generated method stub
@@ -146,7 +231,26 @@ public class CliUI implements UI {
 
     @Override
     public void onWorkThreadDo(Runnable callback) {
-        callback.run(); // no threads
+        var executor = workExecutor;
+        if (executor == null || isWorkThread.get()) {
+            callback.run();
+            return;
+        }
+
+        queuedWork.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                callback.run();
+            } catch (AutogramException e) {
+                nJobsFailed.incrementAndGet();
+                showError(e);
+            } catch (RuntimeException e) {
+                nJobsFailed.incrementAndGet();
+                showError(new UnrecognizedException(e));
+            } finally {
+                queuedWork.release();
+            }
+        });
     }
 
     @Override
@@ -156,7 +260,7 @@ public class CliUI implements UI {
 
     @Override
     public void onSigningSuccess(SigningJob job) {
-
+        nJobsSucceeded.incrementAndGet();
     }
 
     @Override
@@ -275,6 +379,12 @@ public class CliUI implements UI {
             errMessage = "Slot ID is not a number";
         } else if (e instanceof PDFSignatureLevelIsNotValidException) {
             errMessage = "PDF signature level is not valid";
+        } else if (e instanceof OptionIsNotAPositiveNumberException) {
+            errMessage = "Option value is not a positive number";
+        } else if (e instanceof ContainerSignatureLevelIsNotValidException) {
+            errMessage = "Container signature level is not valid";
+        } else if (e instanceof ValidationResultFormatIsNotValidException) {
+            errMessage = "Validation result format is not valid";
         } else {
             errMessage = "Unknown error occurred";
             e.printStackTrace();
@@ -0,0 +1,93 @@
+package digital.slovensko.autogram.ui.cli;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Files to sign from the source file or directory. The directory is walked lazily each time, so
+ * neither the listing nor the jobs built from it are ever held in memory as a whole.
+ *
+ * Without recursion only files directly in the source directory are listed. With recursion the
+ * files of all subdirectories are listed too, except the target directory when it is inside the
+ * source, so that signed files are not signed again.
+ */
+public class SourceFiles {
+    private final Path source;
+    private final boolean recursive;
+    private final Path excludedDirectory;
+    private final Predicate<Path> filter;
+
+    public SourceFiles(Path source, boolean recursive, Path excludedDirectory) {
+        this(source, recursive, excludedDirectory == null ? null : excludedDirectory.toAbsolutePath().normalize(),
+                file -> true);
+    }
+
+    private SourceFiles(Path source, boolean recursive, Path excludedDirectory, Predicate<Path> filter) {
+        this.source = source;
+        this.recursive = recursive;
+        this.excludedDirectory = excludedDirectory;
+        this.filter = filter;
+    }
+
+    /**
+     * Only files matching the filter are listed and counted, e.g. files not signed yet.
+     */
+    public SourceFiles filter(Predicate<Path> filter) {
+        return new SourceFiles(source, recursive, excludedDirectory, this.filter.and(filter));
+    }
+
+    public void forEach(Consumer<Path> action) throws IOException {
+        var maxDepth = recursive ? Integer.MAX_VALUE : 1;
+        Files.walkFileTree(source, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                if (!directory.equals(source) && directory.toAbsolutePath().normalize().equals(excludedDirectory))
+                    return FileVisitResult.SKIP_SUBTREE;
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && filter.test(file))
+                    action.accept(file);
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                if (file.equals(source))
+                    throw e;
+
+                System.err.println("Unable to read \"%s\": %s".formatted(file, e.getMessage()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public long count() throws IOException {
+        var count = new long[] { 0 };
+        forEach(file -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Directory of the file relative to the source directory, empty for files directly in it.
+     */
+    public Path getRelativeDirectory(Path file) {
+        var parent = file.getParent();
+        if (file.equals(source) || parent == null || parent.equals(source))
+            return source.getFileSystem().getPath("");
+
+        return source.relativize(parent);
+    }
+}
@@ -0,0 +1,57 @@
+package digital.slovensko.autogram.ui.cli;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import eu.europa.esig.dss.enumerations.Indication;
+import eu.europa.esig.dss.enumerations.SubIndication;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * Result of one file in bulk validation. A file with more signatures gets the worst indication of
+ * them, together with its sub-indication, and the names of all signers.
+ */
+record ValidationResult(String file, int signatures, Indication indication, SubIndication subIndication,
+        String signedBy, String error) {
+    private static final List<Indication> FROM_BEST_TO_WORST = List.of(Indication.TOTAL_PASSED, Indication.PASSED,
+            Indication.INDETERMINATE, Indication.FAILED, Indication.TOTAL_FAILED);
+
+    static ValidationResult fromReports(String file, Reports reports) {
+        var simpleReport = reports == null ? null : reports.getSimpleReport();
+        if (simpleReport == null || simpleReport.getSignaturesCount() == 0)
+            return withoutSignatures(file);
+
+        var worst = simpleReport.getSignatureIdList().get(0);
+        for (var id : simpleReport.getSignatureIdList())
+            if (rank(simpleReport.getIndication(id)) > rank(simpleReport.getIndication(worst)))
+                worst = id;
+
+        var signedBy = simpleReport.getSignatureIdList().stream().map(simpleReport::getSignedBy)
+                .distinct().collect(Collectors.joining("; "));
+
+        return new ValidationResult(file, simpleReport.getSignaturesCount(), simpleReport.getIndication(worst),
+                simpleReport.getSubIndication(worst), signedBy, null);
+    }
+
+    static ValidationResult withoutSignatures(String file) {
+        return new ValidationResult(file, 0, Indication.NO_SIGNATURE_FOUND, null, null, null);
+    }
+
+    static ValidationResult fromError(String file, Exception e) {
+        var message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return new ValidationResult(file, 0, null, null, null, message);
+    }
+
+    boolean isValid() {
+        return indication == Indication.TOTAL_PASSED || indication == Indication.PASSED;
+    }
+
+    boolean isError() {
+        return error != null;
+    }
+
+    private static int rank(Indication indication) {
+        var rank = FROM_BEST_TO_WORST.indexOf(indication);
+        return rank < 0 ? FROM_BEST_TO_WORST.size() : rank;
+    }
+}
@@ -0,0 +1,112 @@
+package digital.slovensko.autogram.ui.cli;
+
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import digital.slovensko.autogram.core.errors.ValidationResultFormatIsNotValidException;
+
+/**
+ * Line formats of bulk validation results. Each result is one line and the file name can be read
+ * back from it, which is used to resume an interrupted validation.
+ */
+public enum ValidationResultFormat {
+    JSON {
+        private final Gson gson = new Gson();
+
+        @Override
+        String getHeader() {
+            return null;
+        }
+
+        @Override
+        String format(ValidationResult result) {
+            return gson.toJson(result);
+        }
+
+        @Override
+        String parseFile(String line) {
+            try {
+                var file = JsonParser.parseString(line).getAsJsonObject().get("file");
+                return file == null ? null : file.getAsString();
+
+            } catch (JsonParseException | IllegalStateException e) {
+                // last line of an interrupted run may be incomplete
+                return null;
+            }
+        }
+    },
+
+    CSV {
+        @Override
+        String getHeader() {
+            return CSV_HEADER;
+        }
+
+        @Override
+        String format(ValidationResult result) {
+            return Stream.of(result.file(), result.signatures(), result.indication(), result.subIndication(),
+                    result.signedBy(), result.error()).map(ValidationResultFormat::quote).collect(Collectors.joining(","));
+        }
+
+        @Override
+        String parseFile(String line) {
+            if (line.equals(CSV_HEADER) || line.isEmpty())
+                return null;
+
+            if (line.charAt(0) != '"')
+                return line.substring(0, line.indexOf(',') < 0 ? line.length() : line.indexOf(','));
+
+            var file = new StringBuilder();
+            for (var i = 1; i < line.length(); i++) {
+                var c = line.charAt(i);
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                        i++;
+                    else
+                        return file.toString();
+                }
+                file.append(c);
+            }
+
+            return null;
+        }
+    };
+
+    private static final String CSV_HEADER = "file,signatures,indication,subIndication,signedBy,error";
+
+    /**
+     * First line of the output, or null.
+     */
+    abstract String getHeader();
+
+    abstract String format(ValidationResult result);
+
+    /**
+     * Returns the file name of a result line, or null if the line is not a result.
+     */
+    abstract String parseFile(String line);
+
+    public static ValidationResultFormat fromName(String name) throws ValidationResultFormatIsNotValidException {
+        for (var format : values())
+            if (format.name().equalsIgnoreCase(name))
+                return format;
+
+        throw new ValidationResultFormatIsNotValidException(name);
+    }
+
+    /**
+     * Quotes values with separators. Line breaks are replaced, every result must stay on one line.
+     */
+    private static String quote(Object value) {
+        var text = Objects.toString(value, "");
+        if (text.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r'))
+            return text;
+
+        return '"' + text.replace("\"", "\"\"").replace('\r', ' ').replace('\n', ' ') + '"';
+    }
+}
@@ -7,7 +7,9 @@ import java.util.concurrent.ScheduledExecutorService;
 import digital.slovensko.autogram.core.Autogram;
 import digital.slovensko.autogram.core.DefaultDriverDetector;
 import digital.slovensko.autogram.core.LaunchParameters;
+import digital.slovensko.autogram.core.SignatureValidator;
 import digital.slovensko.autogram.core.UserSettings;
+import digital.slovensko.autogram.core.WarmUp;
 import digital.slovensko.autogram.server.AutogramServer;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -17,17 +19,24 @@ import javafx.stage.Stage;
 public class GUIApp extends Application {
     private final ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(1);
     private final ExecutorService cachedExecutorService = Executors.newFixedThreadPool(8);
+    private Autogram autogram;
 
     @Override
     public void start(Stage windowStage) throws Exception {
         var userSettings = UserSettings.load();
         var ui = new GUI(getHostServices(), userSettings);
-        var autogram = new Autogram(ui, userSettings.isCorrectDocumentDisplay(), new DefaultDriverDetector(
+        autogram = new Autogram(ui, userSettings.isCorrectDocumentDisplay(), new DefaultDriverDetector(
                 userSettings.getCustomKeystorePath(), userSettings.getCustomKeystorePasswordPrompt()));
 
+        autogram.setSigningParallelism(userSettings.getSigningThreads());
+        SignatureValidator.getInstance().setRevocationOfflineOnly(userSettings.isOfflineRevocation());
+        SignatureValidator.getInstance().setValidationPolicyPath(userSettings.getValidationPolicyPath());
+
         Platform.setImplicitExit(false);
         autogram.checkForUpdate();
         autogram.initializeSignatureValidator(scheduledExecutorService, cachedExecutorService, userSettings.getTrustedList());
+        if (getParameters().getRaw().contains("--warm-up"))
+            WarmUp.runInBackground(cachedExecutorService, duration -> {});
 
         setUserAgentStylesheet(getClass().getResource("idsk.css").toExternalForm());
 
@@ -63,6 +72,11 @@ public class GUIApp extends Application {
 
     @Override
     public void stop() throws Exception {
+        if (autogram != null) {
+            autogram.shutdownSigningExecutor();
+            autogram.closeTokenSessions();
+        }
+
         if (!scheduledExecutorService.awaitTermination(2, java.util.concurrent.TimeUnit.SECONDS))
             scheduledExecutorService.shutdownNow();
 
@@ -1,7 +1,9 @@
 package digital.slovensko.autogram.ui.gui;
 
 import digital.slovensko.autogram.core.Autogram;
+import digital.slovensko.autogram.core.SignatureValidator;
 import digital.slovensko.autogram.core.SigningJob;
+import digital.slovensko.autogram.core.TargetPath;
 import digital.slovensko.autogram.core.UserSettings;
 import digital.slovensko.autogram.core.errors.AutogramException;
 import digital.slovensko.autogram.core.errors.EmptyDirectorySelectedException;
@@ -9,6 +11,7 @@ import digital.slovensko.autogram.core.errors.NoFilesSelectedException;
 import digital.slovensko.autogram.core.errors.UnrecognizedException;
 import digital.slovensko.autogram.ui.BatchGuiFileResponder;
 import digital.slovensko.autogram.ui.SaveFileResponder;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
 import javafx.fxml.FXML;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -111,6 +114,8 @@ public class MainMenuController implements SuppressedFocusController {
                     new SaveFileResponder(file, autogram, userSettings.shouldSignPDFAsPades()),
                     userSettings.isPdfaCompliance(), userSettings.getSignatureLevel(), userSettings.isEn319132());
             autogram.sign(job);
+        } else if (!userSettings.isSignIndividually()) {
+            signAsContainer(filesList, filesList.get(0));
         } else {
             autogram.batchStart(filesList.size(), new BatchGuiFileResponder(autogram, filesList,
                     filesList.get(0).toPath().getParent().resolve("signed"), userSettings.isPdfaCompliance(),
@@ -124,6 +129,11 @@ public class MainMenuController implements SuppressedFocusController {
             throw new EmptyDirectorySelectedException(dir.getAbsolutePath());
 
         var filesList = getFilesList(directoryFiles);
+        if (!userSettings.isSignIndividually()) {
+            signAsContainer(filesList, dir);
+            return;
+        }
+
         var targetDirectoryName = dir.getName() + "_signed";
         var targetDirectory = dir.toPath().getParent().resolve(targetDirectoryName);
         autogram.batchStart(filesList.size(),
@@ -132,6 +142,17 @@ public class MainMenuController implements SuppressedFocusController {
                         userSettings.isEn319132()));
     }
 
+    private void signAsContainer(List<File> filesList, File namingSource) {
+        var containerLevel = userSettings.getSignatureLevel() == SignatureLevel.CAdES_BASELINE_B
+                ? SignatureLevel.CAdES_BASELINE_B
+                : SignatureLevel.XAdES_BASELINE_B;
+
+        var responder = new SaveFileResponder(namingSource, autogram,
+                TargetPath.fromSourceForContainer(namingSource.toPath()));
+        autogram.sign(SigningJob.buildFromFilesAsContainer(filesList, responder, containerLevel,
+                userSettings.isEn319132()));
+    }
+
     public void onAboutButtonAction() {
         autogram.onAboutInfo();
     }
@@ -145,6 +166,11 @@ public class MainMenuController implements SuppressedFocusController {
         stage.setScene(new Scene(root));
         stage.setResizable(false);
         stage.initModality(Modality.APPLICATION_MODAL);
+        stage.setOnHidden(event -> {
+            autogram.setSigningParallelism(userSettings.getSigningThreads());
+            SignatureValidator.getInstance().setRevocationOfflineOnly(userSettings.isOfflineRevocation());
+            SignatureValidator.getInstance().setValidationPolicyPath(userSettings.getValidationPolicyPath());
+        });
         stage.show();
     }
 
@@ -23,6 +23,10 @@ public class SettingsDialogController {
     @FXML
     private HBox en319132Radios;
     @FXML
+    private HBox signIndividuallyRadios;
+    @FXML
+    private ChoiceBox<Integer> signingThreadsChoiceBox;
+    @FXML
     private ChoiceBox<TokenDriver> driverChoiceBox;
     @FXML
     private VBox trustedCountriesList;
@@ -37,6 +41,10 @@ public class SettingsDialogController {
     @FXML
     private HBox expiredCertsRadios;
     @FXML
+    private HBox offlineRevocationRadios;
+    @FXML
+    private TextField validationPolicyPathTextField;
+    @FXML
     private HBox localServerEnabledRadios;
     @FXML
     private TextField customKeystorePathTextField;
@@ -57,10 +65,14 @@ public class SettingsDialogController {
         initializeSignatureLevelChoiceBox();
         initializeDriverChoiceBox();
         initializeEn319132CheckBox();
+        initializeSignIndividuallyCheckBox();
+        initializeSigningThreadsChoiceBox();
         initializeCorrectDocumentDisplayCheckBox();
         initializeSignatureValidationCheckBox();
         initializeCheckPDFAComplianceCheckBox();
         initializeExpiredCertsEnabledCheckBox();
+        initializeOfflineRevocationCheckBox();
+        initializeValidationPolicySettings();
         initializeLocalServerEnabledCheckBox();
         initializeTrustedCountriesList();
         initializeCustomKeystoreSettings();
@@ -79,6 +91,18 @@ public class SettingsDialogController {
                 });
     }
 
+    private void initializeSigningThreadsChoiceBox() {
+        var maxThreads = Math.max(Runtime.getRuntime().availableProcessors(), userSettings.getSigningThreads());
+        for (int i = 1; i <= maxThreads; i++)
+            signingThreadsChoiceBox.getItems().add(i);
+
+        signingThreadsChoiceBox.setValue(userSettings.getSigningThreads());
+        signingThreadsChoiceBox.getSelectionModel().selectedItemProperty()
+                .addListener((observable, oldValue, newValue) -> {
+                    userSettings.setSigningThreads(newValue);
+                });
+    }
+
     private void initializeDriverChoiceBox() {
         var driverDetector = new DefaultDriverDetector(userSettings.getCustomKeystorePath(), userSettings.getCustomKeystorePasswordPrompt());
         driverChoiceBox.setConverter(new TokenDriverStringConverter(driverDetector));
@@ -122,6 +146,11 @@ public class SettingsDialogController {
         initializeBooleanRadios(en319132Radios, t -> userSettings.setEn319132(t), userSettings.isEn319132());
     }
 
+    private void initializeSignIndividuallyCheckBox() {
+        initializeBooleanRadios(signIndividuallyRadios, t -> userSettings.setSignIndividually(t),
+                userSettings.isSignIndividually());
+    }
+
     private void initializeCorrectDocumentDisplayCheckBox() {
         initializeBooleanRadios(correctDocumentDisplayRadios, t -> userSettings.setCorrectDocumentDisplay(t),
                 userSettings.isCorrectDocumentDisplay());
@@ -142,6 +171,18 @@ public class SettingsDialogController {
                 userSettings.isExpiredCertsEnabled());
     }
 
+    private void initializeOfflineRevocationCheckBox() {
+        initializeBooleanRadios(offlineRevocationRadios, t -> userSettings.setOfflineRevocation(t),
+                userSettings.isOfflineRevocation());
+    }
+
+    private void initializeValidationPolicySettings() {
+        validationPolicyPathTextField.setText(userSettings.getValidationPolicyPath());
+        validationPolicyPathTextField.setOnKeyTyped((e) -> {
+            userSettings.setValidationPolicyPath(validationPolicyPathTextField.getText());
+        });
+    }
+
     private void initializeLocalServerEnabledCheckBox() {
         initializeBooleanRadios(localServerEnabledRadios, t -> userSettings.setServerEnabled(t),
                 userSettings.isServerEnabled());
@@ -1,5 +1,6 @@
 package digital.slovensko.autogram.util;
 
+import digital.slovensko.autogram.core.DocumentTypeDetector;
 import eu.europa.esig.dss.asic.cades.validation.ASiCContainerWithCAdESValidatorFactory;
 import eu.europa.esig.dss.asic.xades.validation.ASiCContainerWithXAdESValidatorFactory;
 import eu.europa.esig.dss.cades.validation.CMSDocumentValidatorFactory;
@@ -38,21 +39,15 @@ public class DSSUtils {
     }
 
     public static SignedDocumentValidator createDocumentValidator(DSSDocument document) {
-        if (new PDFDocumentValidatorFactory().isSupported(document))
-            return new PDFDocumentValidatorFactory().create(document);
-
-        if (new XMLDocumentValidatorFactory().isSupported(document))
-            return new XMLDocumentValidatorFactory().create(document);
-
-        if (new ASiCContainerWithXAdESValidatorFactory().isSupported(document))
-            return new ASiCContainerWithXAdESValidatorFactory().create(document);
-
-        if (new ASiCContainerWithCAdESValidatorFactory().isSupported(document))
-            return new ASiCContainerWithCAdESValidatorFactory().create(document);
-
-        if (new CMSDocumentValidatorFactory().isSupported(document))
-            return new CMSDocumentValidatorFactory().create(document);
-
-        return null;
+        return switch (DocumentTypeDetector.detect(document)) {
+            case PDF -> new PDFDocumentValidatorFactory().create(document);
+            case XML, XDC -> new XMLDocumentValidatorFactory().create(document);
+            case ASIC_WITH_XADES -> new ASiCContainerWithXAdESValidatorFactory().create(document);
+            case ASIC_WITH_CADES -> new ASiCContainerWithCAdESValidatorFactory().create(document);
+            // timestamp tokens are ASN.1 sequences too, only the factory tells them apart
+            case CMS -> new CMSDocumentValidatorFactory().isSupported(document)
+                    ? new CMSDocumentValidatorFactory().create(document) : null;
+            case UNKNOWN -> null;
+        };
     }
 }
@@ -0,0 +1,106 @@
+package digital.slovensko.autogram.util;
+
+import eu.europa.esig.dss.asic.common.SecureContainerHandler;
+import eu.europa.esig.dss.asic.common.ZipUtils;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.FileDocument;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes ASiC containers built from file-backed documents straight to a temporary file instead of
+ * assembling the whole archive in memory. Containers built from in-memory documents (e.g. server
+ * requests) are handled by the default DSS implementation.
+ *
+ * Containers are signed and saved on one thread, temporary files created on it are deleted by
+ * deleteTemporaryFiles once the signed container was handed over.
+ */
+public class FileBackedContainerHandler extends SecureContainerHandler {
+    private static final String MIMETYPE_ENTRY_NAME = "mimetype";
+    private static final ThreadLocal<List<File>> temporaryFiles = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * Makes DSS build all ASiC containers with this handler, called once at startup.
+     */
+    public static void install() {
+        ZipUtils.getInstance().setZipContainerHandler(new FileBackedContainerHandler());
+    }
+
+    /**
+     * Deletes temporary containers created on this thread, their documents must not be read after.
+     */
+    public static void deleteTemporaryFiles() {
+        var files = temporaryFiles.get();
+        for (var file : files) {
+            if (!file.delete() && file.exists())
+                Logging.log("Unable to delete temporary container " + file);
+        }
+
+        files.clear();
+    }
+
+    @Override
+    public DSSDocument createZipArchive(List<DSSDocument> containerEntries, Date creationTime, String zipComment) {
+        if (containerEntries.stream().noneMatch(FileDocument.class::isInstance))
+            return super.createZipArchive(containerEntries, creationTime, zipComment);
+
+        try {
+            var file = File.createTempFile("autogram-container-", ".zip");
+            temporaryFiles.get().add(file);
+
+            try (var zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                for (var entry : containerEntries)
+                    writeEntry(zip, entry, creationTime);
+
+                if (zipComment != null)
+                    zip.setComment(zipComment);
+            }
+
+            return new FileDocument(file);
+        } catch (IOException e) {
+            throw new DSSException("Unable to create an ASiC container", e);
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zip, DSSDocument document, Date creationTime) throws IOException {
+        var zipEntry = new ZipEntry(document.getName());
+        if (creationTime != null)
+            zipEntry.setTime(creationTime.getTime());
+
+        if (MIMETYPE_ENTRY_NAME.equals(document.getName())) {
+            // mimetype has to be the first, uncompressed entry of the container
+            byte[] content;
+            try (var is = document.openStream()) {
+                content = is.readAllBytes();
+            }
+
+            var crc = new CRC32();
+            crc.update(content);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(content.length);
+            zipEntry.setCompressedSize(content.length);
+            zipEntry.setCrc(crc.getValue());
+
+            zip.putNextEntry(zipEntry);
+            zip.write(content);
+        } else {
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+            zip.putNextEntry(zipEntry);
+            try (var is = document.openStream()) {
+                is.transferTo(zip);
+            }
+        }
+
+        zip.closeEntry();
+    }
+}
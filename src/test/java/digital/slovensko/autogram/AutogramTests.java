@@ -7,6 +7,8 @@ import digital.slovensko.autogram.drivers.TokenDriver;
 import digital.slovensko.autogram.ui.BatchUiResult;
 import digital.slovensko.autogram.ui.UI;
 import digital.slovensko.autogram.ui.gui.IgnorableException;
+import digital.slovensko.autogram.util.FileBackedContainerHandler;
+import eu.europa.esig.dss.asic.common.ZipUtils;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.token.AbstractKeyStoreTokenConnection;
@@ -16,6 +18,7 @@ import eu.europa.esig.dss.token.Pkcs12SignatureToken;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.File;
@@ -23,10 +26,13 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.KeyStore;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -87,6 +93,7 @@ class AutogramTests {
     @BeforeAll
     public static void setupTempTestDirectory() {
         tempTestsPath.toFile().mkdirs();
+        FileBackedContainerHandler.install();
     }
 
     @ParameterizedTest
@@ -113,6 +120,45 @@ class AutogramTests {
         verify(responder).onDocumentSigned(any());
     }
 
+    @ParameterizedTest
+    @EnumSource(value = SignatureLevel.class, names = { "XAdES_BASELINE_B", "CAdES_BASELINE_B" })
+    void testSignMultipleFilesAsContainerHappyScenario(SignatureLevel level) throws IOException {
+        var newUI = new FakeUI();
+        List<TokenDriver> drivers = List.of(new FakeTokenDriver("fake"));
+        var autogram = new Autogram(newUI, true, new FakeDriverDetector(drivers));
+
+        var files = new ArrayList<File>();
+        for (var name : List.of("sample.pdf", "sample.txt", "sample.png")) {
+            var file = Path.of(tempTestsPath.toString(), name).toFile();
+            try (var is = Objects.requireNonNull(getClass().getResourceAsStream(name));
+                    var os = new FileOutputStream(file)) {
+                is.transferTo(os);
+            }
+            files.add(file);
+        }
+
+        var responder = mock(Responder.class);
+        var entryNames = new ArrayList<String>();
+        // the container is a temporary file which is deleted once the responder returns
+        doAnswer(invocation -> entryNames.addAll(ZipUtils.getInstance().extractEntryNames(
+                invocation.<SignedDocument>getArgument(0).getDocument()))).when(responder).onDocumentSigned(any());
+        var temporaryContainers = countTemporaryContainers();
+
+        autogram.pickSigningKeyAndThen(
+                key -> autogram.sign(SigningJob.buildFromFilesAsContainer(files, responder, level, false), key));
+
+        verify(responder).onDocumentSigned(any());
+        assertEquals("mimetype", entryNames.get(0));
+        assertTrue(entryNames.containsAll(List.of("sample.pdf", "sample.txt", "sample.png")));
+        assertEquals(temporaryContainers, countTemporaryContainers());
+    }
+
+    private static long countTemporaryContainers() {
+        var files = new File(System.getProperty("java.io.tmpdir")).listFiles(
+                (directory, name) -> name.startsWith("autogram-container-"));
+        return files == null ? 0 : files.length;
+    }
+
     @Test
     void testSignCertificatePickFailed() {
 
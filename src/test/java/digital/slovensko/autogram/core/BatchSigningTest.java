@@ -0,0 +1,109 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import digital.slovensko.autogram.ui.UI;
+
+public class BatchSigningTest {
+    private static final int JOBS = 8;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch signed = new CountDownLatch(JOBS);
+    private Autogram autogram;
+    private Batch batch;
+
+    @BeforeEach
+    public void startBatch() {
+        var key = mock(SigningKey.class);
+        when(key.supportsConcurrentSigning()).thenReturn(true);
+
+        var ui = mock(UI.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(ui).onWorkThreadDo(any());
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(ui).onUIThreadDo(any());
+        var startedBatch = new AtomicReference<Batch>();
+        doAnswer(invocation -> {
+            startedBatch.set(invocation.getArgument(0));
+            startedBatch.get().start(key);
+            return null;
+        }).when(ui).startBatch(any(), any(), any());
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread().getName());
+            Thread.sleep(100);
+            running.decrementAndGet();
+            signed.countDown();
+            return null;
+        }).when(ui).signBatch(any(), any());
+
+        autogram = new Autogram(ui, false, () -> List.of());
+        autogram.batchStart(JOBS, mock(BatchResponder.class));
+        batch = startedBatch.get();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        autogram.shutdownSigningExecutor();
+    }
+
+    @Test
+    public void testBatchJobsAreSignedInParallel() throws InterruptedException {
+        autogram.setSigningParallelism(4);
+
+        for (int i = 0; i < JOBS; i++)
+            autogram.batchSign(mock(SigningJob.class), batch.getBatchId());
+
+        assertTrue(signed.await(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() > 1);
+        assertEquals(Set.of("autogram-signing"), threads);
+    }
+
+    @Test
+    public void testChangingParallelismDuringBatchSignsAllJobs() throws InterruptedException {
+        autogram.setSigningParallelism(2);
+        var error = new AtomicReference<Throwable>();
+        var submitter = new Thread(() -> {
+            try {
+                for (int i = 0; i < JOBS; i++) {
+                    autogram.batchSign(mock(SigningJob.class), batch.getBatchId());
+                    Thread.sleep(20);
+                }
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        });
+        submitter.start();
+
+        for (int i = 0; submitter.isAlive(); i++)
+            autogram.setSigningParallelism(2 + i % 2);
+        submitter.join();
+
+        assertEquals(null, error.get());
+        assertTrue(signed.await(10, TimeUnit.SECONDS));
+        assertEquals(Set.of("autogram-signing"), threads);
+    }
+}
@@ -0,0 +1,80 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import digital.slovensko.autogram.core.DocumentTypeDetector.DocumentType;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+
+class DocumentTypeDetectorTest {
+    private static Stream<Arguments> documents() throws IOException {
+        return Stream.of(
+                Arguments.of(file("sample.pdf"), DocumentType.PDF),
+                Arguments.of(file("sample_signed.pdf"), DocumentType.PDF),
+                Arguments.of(file("general_agenda.xml"), DocumentType.XML),
+                Arguments.of(file("general_agenda_header_indented.xml"), DocumentType.XML),
+                Arguments.of(file("general_agenda_xdc.xml"), DocumentType.XDC),
+                Arguments.of(file("general_agenda_xdc_indented.xml"), DocumentType.XDC),
+                Arguments.of(file("wrong_schema_xdc.xml"), DocumentType.XDC),
+                Arguments.of(file("sample_pdf_xades.asice"), DocumentType.ASIC_WITH_XADES),
+                Arguments.of(file("no_signatures.asice"), DocumentType.ASIC_WITH_XADES),
+                Arguments.of(file("sample_pdf_cades.asice"), DocumentType.ASIC_WITH_CADES),
+                Arguments.of(inMemory("sample_pdf_cades.asice"), DocumentType.ASIC_WITH_CADES),
+                Arguments.of(file("sample.txt"), DocumentType.UNKNOWN),
+                Arguments.of(file("empty_xml.xml"), DocumentType.UNKNOWN));
+    }
+
+    @ParameterizedTest
+    @MethodSource("documents")
+    void testDetectsDocumentType(DSSDocument document, DocumentType expected) {
+        assertEquals(expected, DocumentTypeDetector.detect(document));
+    }
+
+    @Test
+    void testXDCRootIsDetectedFromHeaderOnly() {
+        var document = new InMemoryDocument(("<?xml version=\"1.0\"?>\n<!-- comment -->\n"
+                + "<c:XMLDataContainer xmlns:c=\"http://data.gov.sk/def/container/xmldatacontainer+xml/1.1\"><unclosed>")
+                .getBytes());
+
+        assertEquals(DocumentType.XDC, DocumentTypeDetector.detect(document));
+    }
+
+    @Test
+    void testSameElementInOtherNamespaceIsPlainXML() {
+        var document = new InMemoryDocument("<XMLDataContainer xmlns=\"urn:other\"/>".getBytes());
+
+        assertEquals(DocumentType.XML, DocumentTypeDetector.detect(document));
+    }
+
+    @Test
+    void testSigningJobConfirmsXDCWithSchema() {
+        var xdc = SigningJob.createDSSFileDocumentFromFile(file("general_agenda_xdc.xml").getFile());
+        var wrongSchema = SigningJob.createDSSFileDocumentFromFile(file("wrong_schema_xdc.xml").getFile());
+
+        assertEquals(AutogramMimeType.XML_DATACONTAINER, xdc.getMimeType());
+        assertNotEquals(AutogramMimeType.XML_DATACONTAINER, wrongSchema.getMimeType());
+    }
+
+    private static FileDocument file(String name) {
+        return new FileDocument(new File(Objects.requireNonNull(
+                DocumentTypeDetectorTest.class.getResource("/digital/slovensko/autogram/" + name)).getFile()));
+    }
+
+    private static DSSDocument inMemory(String name) throws IOException {
+        try (var stream = DocumentTypeDetectorTest.class.getResourceAsStream("/digital/slovensko/autogram/" + name)) {
+            return new InMemoryDocument(stream.readAllBytes(), name);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.tsp.TimeStampRequestGenerator;
+import org.bouncycastle.tsp.TimeStampTokenGenerator;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.FileDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.TimestampBinary;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.spi.x509.tsp.TSPSource;
+import eu.europa.esig.dss.token.Pkcs12SignatureToken;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+
+class SignatureFormatDetectorTest {
+    private static Stream<Arguments> documents() throws IOException {
+        return Stream.of(
+                Arguments.of(file("sample_signed.pdf"), SignatureLevel.PAdES_BASELINE_B),
+                Arguments.of(file("sample.pdf"), null),
+                Arguments.of(file("sample_pdf_xades.asice"), SignatureLevel.XAdES_BASELINE_B),
+                Arguments.of(file("sample_pdf_cades.asice"), SignatureLevel.CAdES_BASELINE_B),
+                Arguments.of(file("no_signatures.asice"), null),
+                Arguments.of(file("sample.docx"), null),
+                Arguments.of(file("general_agenda.xml"), null),
+                Arguments.of(file("sample.txt"), null),
+                Arguments.of(file("test.keystore"), null),
+                Arguments.of(entry("sample_pdf_xades.asice", "META-INF/signatures001.xml"), SignatureLevel.XAdES_BASELINE_B),
+                Arguments.of(entry("sample_pdf_cades.asice", "META-INF/signature001.p7s"), SignatureLevel.CAdES_BASELINE_B));
+    }
+
+    @ParameterizedTest
+    @MethodSource("documents")
+    void testDetectsSameLevelAsValidation(DSSDocument document, SignatureLevel expected) {
+        assertEquals(expected, SignatureFormatDetector.detect(document));
+    }
+
+    /**
+     * Timestamped signatures are detected with the base level of their format, while DSS validation
+     * reports their actual level. Signing a timestamped PDF therefore follows the existing PAdES
+     * signature instead of the requested signature type.
+     */
+    @Test
+    void testTimestampedSignaturesAreDetectedWithBaseLevel(@TempDir Path directory) throws Exception {
+        var pdf = signPAdES(file("sample.pdf"), new TestTSPSource());
+
+        assertEquals(SignatureLevel.PAdES_BASELINE_T, validatedLevel(pdf));
+        assertEquals(SignatureLevel.PAdES_BASELINE_B, SignatureFormatDetector.detect(pdf));
+
+        var pdfFile = directory.resolve("timestamped.pdf");
+        pdf.save(pdfFile.toString());
+        var job = SigningJob.buildFromFileBatch(pdfFile.toFile(), null, null, false, SignatureLevel.XAdES_BASELINE_B, false);
+        assertEquals(SignatureLevel.PAdES_BASELINE_B, job.getParameters().getLevel());
+    }
+
+    private static DSSDocument signPAdES(DSSDocument document, TSPSource tspSource) throws IOException {
+        try (var token = signingToken()) {
+            var key = token.getKeys().get(0);
+            var parameters = new PAdESSignatureParameters();
+            parameters.setSignatureLevel(SignatureLevel.PAdES_BASELINE_T);
+            parameters.setSigningCertificate(key.getCertificate());
+            parameters.setCertificateChain(key.getCertificateChain());
+            parameters.setSignWithExpiredCertificate(true);
+
+            var service = new PAdESService(new CommonCertificateVerifier());
+            service.setTspSource(tspSource);
+            var dataToSign = service.getDataToSign(document, parameters);
+            return service.signDocument(document, parameters, token.sign(dataToSign, parameters.getDigestAlgorithm(), key));
+        }
+    }
+
+    private static SignatureLevel validatedLevel(DSSDocument document) {
+        var validator = SignedDocumentValidator.fromDocument(document);
+        validator.setCertificateVerifier(new CommonCertificateVerifier());
+        var simpleReport = validator.validateDocument().getSimpleReport();
+        return simpleReport.getSignatureFormat(simpleReport.getFirstSignatureId());
+    }
+
+    private static Pkcs12SignatureToken signingToken() throws IOException {
+        return new Pkcs12SignatureToken(((FileDocument) file("test.keystore")).getFile(),
+                new KeyStore.PasswordProtection("".toCharArray()));
+    }
+
+    /**
+     * Issues timestamps with a self-signed TSA certificate
+     */
+    private static class TestTSPSource implements TSPSource {
+        private final KeyPair keys;
+        private final X509Certificate certificate;
+
+        TestTSPSource() throws Exception {
+            var generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keys = generator.generateKeyPair();
+
+            var name = new X500Name("CN=Test TSA");
+            var now = Instant.now();
+            var builder = new JcaX509v3CertificateBuilder(name, BigInteger.ONE, Date.from(now.minus(Duration.ofDays(1))),
+                    Date.from(now.plus(Duration.ofDays(1))), name, keys.getPublic());
+            builder.addExtension(Extension.extendedKeyUsage, true, new ExtendedKeyUsage(KeyPurposeId.id_kp_timeStamping));
+            certificate = new JcaX509CertificateConverter().getCertificate(
+                    builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keys.getPrivate())));
+        }
+
+        @Override
+        public TimestampBinary getTimeStampResponse(DigestAlgorithm digestAlgorithm, byte[] digest) {
+            try {
+                var generator = new TimeStampTokenGenerator(
+                        new JcaSimpleSignerInfoGeneratorBuilder().build("SHA256withRSA", keys.getPrivate(), certificate),
+                        new JcaDigestCalculatorProviderBuilder().build().get(
+                                new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256)),
+                        new ASN1ObjectIdentifier("1.2.3.4"));
+                generator.addCertificates(new JcaCertStore(List.of(certificate)));
+
+                var request = new TimeStampRequestGenerator().generate(new ASN1ObjectIdentifier(digestAlgorithm.getOid()), digest);
+                return new TimestampBinary(generator.generate(request, BigInteger.ONE, new Date()).getEncoded());
+
+            } catch (Exception e) {
+                throw new DSSException(e);
+            }
+        }
+    }
+
+    private static DSSDocument file(String name) {
+        return new FileDocument(new File(Objects.requireNonNull(
+                SignatureFormatDetectorTest.class.getResource("/digital/slovensko/autogram/" + name)).getFile()));
+    }
+
+    private static DSSDocument entry(String container, String entryName) throws IOException {
+        try (var zip = new ZipFile(((FileDocument) file(container)).getFile())) {
+            return new InMemoryDocument(zip.getInputStream(zip.getEntry(entryName)).readAllBytes(), entryName);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import digital.slovensko.autogram.util.DSSUtils;
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+/**
+ * Compares validating a set of signed documents one after another with validating them in the
+ * bounded validation pool, and validating with the DSS default policy loaded on every call with
+ * the policy loaded once. The same documents are validated repeatedly, so the validation result
+ * cache is bypassed. Run with -P benchmark, excluded from the default test run.
+ */
+@Tag("Benchmark")
+public class SignatureValidatorBenchmarkTest {
+    private static final int ROUNDS = 10;
+    private static final List<String> DOCUMENTS = List.of("sample_pdf_xades.asice", "sample_pdf_cades.asice",
+            "sample_txt_xades.asice", "sample_docx_xades.asice", "sample_png_xades.asice",
+            "sample_signed.pdf");
+
+    @Test
+    public void benchmarkParallelValidation() {
+        var validator = SignatureValidator.getInstance();
+        var jobs = createJobs();
+
+        // first pass loads classes and fills DSS caches, it is not measured
+        jobs.forEach(job -> validate(validator, job));
+
+        var start = System.nanoTime();
+        var sequential = jobs.stream().map(job -> indication(validate(validator, job))).toList();
+        var sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        var futures = jobs.stream()
+                .map(job -> CompletableFuture.supplyAsync(() -> validate(validator, job), validator.getValidationPool()))
+                .toList();
+        var parallel = futures.stream().map(CompletableFuture::join).map(SignatureValidatorBenchmarkTest::indication).toList();
+        var parallelMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Validated %d documents: sequentially in %d ms, in parallel in %d ms (%d threads)%n",
+                jobs.size(), sequentialMillis, parallelMillis, Runtime.getRuntime().availableProcessors());
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void benchmarkPreloadedValidationPolicy() {
+        var policy = SignatureValidator.getInstance().getValidationPolicy();
+        var jobs = createJobs();
+
+        // first pass loads classes and fills DSS caches, it is not measured
+        jobs.forEach(job -> createValidator(job).validateDocument());
+
+        var start = System.nanoTime();
+        var withPolicyLoading = jobs.stream().map(job -> indication(createValidator(job).validateDocument())).toList();
+        var policyLoadingMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        var withPreloadedPolicy = jobs.stream().map(job -> indication(createValidator(job).validateDocument(policy))).toList();
+        var preloadedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Validated %d documents: loading policy in each validation in %d ms (%.1f ms/document), " +
+                "with preloaded policy in %d ms (%.1f ms/document)%n", jobs.size(), policyLoadingMillis,
+                (double) policyLoadingMillis / jobs.size(), preloadedMillis, (double) preloadedMillis / jobs.size());
+
+        assertEquals(withPolicyLoading, withPreloadedPolicy);
+    }
+
+    private static Reports validate(SignatureValidator validator, SigningJob job) {
+        return validator.validate(DSSUtils.createDocumentValidator(job.getDocument()), ValidationProfile.FULL);
+    }
+
+    private static SignedDocumentValidator createValidator(SigningJob job) {
+        var validator = DSSUtils.createDocumentValidator(job.getDocument());
+        validator.setCertificateVerifier(new CommonCertificateVerifier());
+        return validator;
+    }
+
+    private List<SigningJob> createJobs() {
+        var jobs = new ArrayList<SigningJob>();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (var name : DOCUMENTS) {
+                var file = new File(Objects.requireNonNull(getClass().getResource("/digital/slovensko/autogram/" + name)).getFile());
+                jobs.add(SigningJob.buildFromFile(file, null, false, SignatureLevel.PAdES_BASELINE_B, false));
+            }
+        }
+
+        return jobs;
+    }
+
+    private static String indication(Reports reports) {
+        var simpleReport = reports.getSimpleReport();
+        return simpleReport.getSignatureIdList().stream().map(id -> String.valueOf(simpleReport.getIndication(id))).toList().toString();
+    }
+}
@@ -0,0 +1,59 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.SignatureLevel;
+
+public class SignatureValidatorTest {
+    private static SigningJob job(String name) {
+        var file = new File(Objects.requireNonNull(
+                SignatureValidatorTest.class.getResource("/digital/slovensko/autogram/" + name)).getFile());
+        return SigningJob.buildFromFile(file, null, false, SignatureLevel.PAdES_BASELINE_B, false);
+    }
+
+    @Test
+    public void testSignaturesAreCheckedBeforeValidationCompletes() {
+        var checked = new ArrayList<ValidationReports>();
+
+        var reports = SignatureValidator.getInstance().getSignatureValidationReport(job("sample_signed.pdf"), checked::add);
+
+        assertEquals(1, checked.size());
+        assertTrue(checked.get(0).haveSignatures());
+        assertTrue(reports.haveSignatures());
+        assertEquals(checked.get(0).getReports().getSimpleReport().getSignatureIdList(),
+                reports.getReports().getSimpleReport().getSignatureIdList());
+    }
+
+    @Test
+    public void testStructureOnlyProfileFindsSignaturesWithoutEtsiReport() {
+        var document = job("sample_signed.pdf").getDocument();
+
+        var structure = SignatureValidator.getInstance().validate(document, ValidationProfile.STRUCTURE_ONLY);
+        var full = SignatureValidator.getInstance().validate(document, ValidationProfile.FULL);
+
+        assertEquals(full.getSimpleReport().getSignatureIdList(), structure.getSimpleReport().getSignatureIdList());
+        assertNull(structure.getEtsiValidationReportJaxb());
+        assertNotNull(full.getEtsiValidationReportJaxb());
+    }
+
+    @Test
+    public void testDocumentWithoutSignaturesIsOnlyChecked() {
+        var checked = new ArrayList<ValidationReports>();
+
+        var reports = SignatureValidator.getInstance().getSignatureValidationReport(job("sample.pdf"), checked::add);
+
+        assertEquals(1, checked.size());
+        assertNotNull(reports);
+        assertFalse(reports.haveSignatures());
+    }
+}
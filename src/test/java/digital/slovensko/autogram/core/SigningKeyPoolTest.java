@@ -0,0 +1,117 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.security.KeyStore;
+import java.security.ProviderException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.Pkcs12SignatureToken;
+
+public class SigningKeyPoolTest {
+    @Test
+    public void testSignaturesAreSpreadAcrossTokensWithinConcurrencyLimit() throws Exception {
+        var tokens = List.of(new CountingToken(null), new CountingToken(null));
+        var pool = new SigningKeyPool(tokens.stream().map(SigningKeyPoolTest::keyOf).toList());
+
+        var executor = Executors.newFixedThreadPool(6);
+        var tasks = new ArrayList<Callable<SignatureValue>>();
+        for (int i = 0; i < 12; i++)
+            tasks.add(() -> pool.sign(new ToBeSigned("data".getBytes()), DigestAlgorithm.SHA256));
+
+        for (var result : executor.invokeAll(tasks))
+            assertNotNull(result.get().getValue());
+
+        executor.shutdown();
+
+        for (var token : tokens) {
+            assertEquals(1, token.maxRunning.get());
+            assertTrue(token.signed.get() > 0);
+        }
+        assertEquals(12L, pool.getSignaturesPerToken().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testRemovedTokenIsTakenOutOfPool() throws IOException {
+        var pool = new SigningKeyPool(List.of(keyOf(new CountingToken(REMOVED)), keyOf(new CountingToken(null))));
+
+        for (int i = 0; i < 3; i++)
+            assertNotNull(pool.sign(new ToBeSigned("data".getBytes()), DigestAlgorithm.SHA256));
+
+        assertEquals(1, pool.getAvailableTokensCount());
+        assertEquals(List.of(0L, 3L), pool.getSignaturesPerToken());
+    }
+
+    @Test
+    public void testThrowsWhenAllTokensAreRemoved() throws IOException {
+        var pool = new SigningKeyPool(List.of(keyOf(new CountingToken(REMOVED)), keyOf(new CountingToken(REMOVED))));
+
+        assertThrows(DSSException.class, () -> pool.sign(new ToBeSigned("data".getBytes()), DigestAlgorithm.SHA256));
+        assertEquals(0, pool.getAvailableTokensCount());
+    }
+
+    @Test
+    public void testOtherErrorsDoNotTakeTokensOutOfPool() throws IOException {
+        var pool = new SigningKeyPool(List.of(keyOf(new CountingToken("CKR_DATA_INVALID")), keyOf(new CountingToken(null))));
+
+        assertThrows(DSSException.class, () -> pool.sign(new ToBeSigned("data".getBytes()), DigestAlgorithm.SHA256));
+        assertEquals(2, pool.getAvailableTokensCount());
+        assertEquals(List.of(0L, 0L), pool.getSignaturesPerToken());
+    }
+
+    private static SigningKey keyOf(CountingToken token) {
+        return new SigningKey(token, token.getKeys().get(0));
+    }
+
+    private static final String REMOVED = "CKR_DEVICE_REMOVED";
+
+    private static class CountingToken extends Pkcs12SignatureToken {
+        /** Message of the error every signature fails with, null for a working token */
+        private final String failure;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+        private final AtomicInteger signed = new AtomicInteger();
+
+        public CountingToken(String failure) throws IOException {
+            super(keystore(), new KeyStore.PasswordProtection("".toCharArray()));
+            this.failure = failure;
+        }
+
+        private static String keystore() {
+            return Objects.requireNonNull(SigningKeyPoolTest.class.getResource("/digital/slovensko/autogram/test.keystore")).getFile();
+        }
+
+        @Override
+        public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm, DSSPrivateKeyEntry keyEntry) {
+            if (failure != null)
+                throw new DSSException(new ProviderException(failure));
+
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                signed.incrementAndGet();
+                return super.sign(toBeSigned, digestAlgorithm, keyEntry);
+            } catch (InterruptedException e) {
+                throw new DSSException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
@@ -140,6 +141,106 @@ public class TargetPathTest {
         assertEqualPath("/test/virtual/target/source2_signed.pdf", target2);
     }
 
+    /**
+     * `--cli -s /test/virtual/ -t /test/target/ --recursive`
+     */
+    @Test
+    public void testDirectoryWithTargetMirrorsSubdirectories() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(com.google.common.jimfs.Configuration.unix());
+        var sourceDirectory = fs.getPath("/test/virtual/");
+        Files.createDirectories(sourceDirectory.resolve("a/b"));
+        var sourceFile = fs.getPath("/test/virtual/a/b/source.pdf");
+        Files.createFile(sourceFile);
+
+        var targetPath = new TargetPath("/test/target/", sourceDirectory, false, false, fs, true);
+        targetPath.mkdirIfDir();
+        var subdirectoryTargetPath = targetPath.forSubdirectory(fs.getPath("a/b"));
+        subdirectoryTargetPath.mkdirIfDir();
+
+        assertTrue(Files.isDirectory(fs.getPath("/test/target/a/b")));
+        assertEqualPath("/test/target/a/b/source_signed.pdf", subdirectoryTargetPath.getSaveFilePath(sourceFile));
+        assertEqualPath("/test/target/source_signed.pdf", targetPath.getSaveFilePath(sourceFile));
+    }
+
+    /**
+     * `--cli -s /test/virtual/source/ --resume` after an interrupted run
+     */
+    @Test
+    public void testDirectoryNoTargetResumeReusesTargetOfInterruptedRun() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(com.google.common.jimfs.Configuration.unix());
+        var sourceDirectory = fs.getPath("/test/virtual/source/");
+        Files.createDirectories(sourceDirectory);
+        var sourceFile = fs.getPath("/test/virtual/source/file.pdf");
+        Files.createFile(sourceFile);
+        Files.createDirectories(fs.getPath("/test/virtual/source_signed/"));
+        Files.createFile(fs.getPath("/test/virtual/source_signed/file_signed.pdf"));
+        Files.createFile(fs.getPath("/test/virtual/source_signed.journal"));
+
+        var targetPath = new TargetPath(null, sourceDirectory, false, false, true, true, fs, true);
+
+        assertEqualPath("/test/virtual/source_signed", targetPath.getTargetDirectory());
+        assertEqualPath("/test/virtual/source_signed/file_signed.pdf", targetPath.getSaveFilePath(sourceFile));
+    }
+
+    /**
+     * `--cli -s /test/virtual/source/ --resume` after a complete run into source_signed and an
+     * interrupted one into "source_signed (1)"
+     */
+    @Test
+    public void testDirectoryNoTargetResumeReusesTargetWithNewestJournal() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(com.google.common.jimfs.Configuration.unix());
+        var sourceDirectory = fs.getPath("/test/virtual/source/");
+        Files.createDirectories(sourceDirectory);
+        Files.createDirectories(fs.getPath("/test/virtual/source_signed/"));
+        Files.createDirectories(fs.getPath("/test/virtual/source_signed (1)/"));
+        Files.createDirectories(fs.getPath("/test/virtual/other_signed (2)/"));
+        Files.createFile(fs.getPath("/test/virtual/source_signed.journal"));
+        Files.createFile(fs.getPath("/test/virtual/source_signed (1).journal"));
+        Files.createFile(fs.getPath("/test/virtual/other_signed (2).journal"));
+        Files.setLastModifiedTime(fs.getPath("/test/virtual/source_signed.journal"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(fs.getPath("/test/virtual/source_signed (1).journal"), FileTime.fromMillis(2000));
+        Files.setLastModifiedTime(fs.getPath("/test/virtual/other_signed (2).journal"), FileTime.fromMillis(3000));
+
+        var targetPath = new TargetPath(null, sourceDirectory, false, false, true, true, fs, true);
+
+        assertEqualPath("/test/virtual/source_signed (1)", targetPath.getTargetDirectory());
+    }
+
+    /**
+     * `--cli -s /test/virtual/source/ --resume` without a journal of an earlier run
+     */
+    @Test
+    public void testDirectoryNoTargetResumeWithoutJournalUsesNewTarget() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(com.google.common.jimfs.Configuration.unix());
+        var sourceDirectory = fs.getPath("/test/virtual/source/");
+        Files.createDirectories(sourceDirectory);
+        Files.createDirectories(fs.getPath("/test/virtual/source_signed/"));
+
+        var targetPath = new TargetPath(null, sourceDirectory, false, false, true, true, fs, true);
+
+        assertEqualPath("/test/virtual/source_signed (1)", targetPath.getTargetDirectory());
+    }
+
+    /**
+     * `--cli -s /test/virtual/source.pdf --resume` with an existing target
+     */
+    @Test
+    public void testSingleFileResumeDoesNotOverwriteTarget() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(com.google.common.jimfs.Configuration.unix());
+        var sourceFile = fs.getPath("/test/virtual/source.pdf");
+        Files.createDirectories(sourceFile.getParent());
+        Files.createFile(sourceFile);
+        Files.createFile(fs.getPath("/test/virtual/target.pdf"));
+
+        assertThrows(digital.slovensko.autogram.core.errors.TargetAlreadyExistsException.class,
+                () -> new TargetPath("/test/virtual/target.pdf", sourceFile, false, false, true, false, fs, true));
+
+        var targetPath = new TargetPath(null, sourceFile, false, false, true, false, fs, true);
+        Files.createFile(fs.getPath("/test/virtual/source_signed.pdf"));
+
+        assertEqualPath("/test/virtual/source_signed (1).pdf", targetPath.getSaveFilePath(sourceFile));
+    }
+
     /**
      * `--cli -s /test/virtual/`
      */
@@ -227,6 +328,18 @@ public class TargetPathTest {
         });
     }
 
+    @Test()
+    public void testDirectoryIntoContainerWithExistingTargetDirectory() throws IOException {
+        FileSystem fs = Jimfs.newFileSystem(com.google.common.jimfs.Configuration.unix());
+        var sourceDirectory = fs.getPath("/test/virtual/");
+        Files.createDirectories(sourceDirectory);
+        Files.createDirectories(fs.getPath("/test/output"));
+
+        assertThrows(digital.slovensko.autogram.core.errors.SourceAndTargetTypeMismatchException.class, () -> {
+            new TargetPath("/test/output", sourceDirectory, true, false, false, fs, false);
+        });
+    }
+
     @Test()
     public void testMkdirIfDirExistsForce() throws IllegalArgumentException,
             IllegalAccessException, IOException {
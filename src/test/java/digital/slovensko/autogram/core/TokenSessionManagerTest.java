@@ -0,0 +1,124 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.ProviderException;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import digital.slovensko.autogram.drivers.TokenDriver;
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.model.ToBeSigned;
+import eu.europa.esig.dss.token.AbstractKeyStoreTokenConnection;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.Pkcs12SignatureToken;
+
+public class TokenSessionManagerTest {
+    @Test
+    public void testSessionIsReusedWhileHealthy() {
+        var manager = new TokenSessionManager();
+        var driver = new RemovableTokenDriver();
+
+        var session = manager.openSession(driver, -1, "".toCharArray());
+
+        assertSame(session, manager.getHealthySession(driver, -1));
+        assertSame(session, manager.getHealthySession(driver, -1));
+        assertEquals(new TokenSessionManager.Metrics(1, 2, 0, 0), manager.getMetrics());
+        assertEquals(1, driver.tokensCreated);
+    }
+
+    @Test
+    public void testClosedSessionIsNotReused() {
+        var manager = new TokenSessionManager();
+        var driver = new RemovableTokenDriver();
+
+        manager.openSession(driver, -1, "".toCharArray()).close();
+
+        assertNull(manager.getHealthySession(driver, -1));
+        assertEquals(new TokenSessionManager.Metrics(1, 0, 0, 1), manager.getMetrics());
+    }
+
+    @Test
+    public void testSessionWithWrongPasswordIsNotKept() {
+        var manager = new TokenSessionManager();
+        var driver = new RemovableTokenDriver();
+
+        assertThrows(DSSException.class, () -> manager.openSession(driver, -1, "wrong".toCharArray()));
+
+        assertNull(manager.getHealthySession(driver, -1));
+        assertEquals(new TokenSessionManager.Metrics(0, 0, 0, 0), manager.getMetrics());
+        assertEquals(1, driver.tokensCreated);
+    }
+
+    @Test
+    public void testSessionReconnectsAfterTokenRemoval() {
+        var manager = new TokenSessionManager();
+        var driver = new RemovableTokenDriver();
+
+        var session = manager.openSession(driver, -1, "".toCharArray());
+        var key = new SigningKey(session, session.getKeys().get(0));
+
+        driver.removeCard();
+        var signatureValue = key.sign(new ToBeSigned("data".getBytes()), DigestAlgorithm.SHA256);
+
+        assertNotNull(signatureValue.getValue());
+        assertEquals(2, driver.tokensCreated);
+        assertEquals(1, manager.getMetrics().reconnected());
+    }
+
+    private static class RemovableTokenDriver extends TokenDriver {
+        private int tokensCreated = 0;
+        private RemovableToken lastToken;
+
+        public RemovableTokenDriver() {
+            super("removable", Path.of(""), true, "removable");
+        }
+
+        @Override
+        public boolean keepsSessionOpen() {
+            return true;
+        }
+
+        @Override
+        public AbstractKeyStoreTokenConnection createTokenWithPassword(Integer slotId, char[] password) {
+            try {
+                var keystore = Objects.requireNonNull(getClass().getResource("/digital/slovensko/autogram/test.keystore")).getFile();
+                tokensCreated++;
+                lastToken = new RemovableToken(keystore, password);
+                return lastToken;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        void removeCard() {
+            lastToken.removed = true;
+        }
+    }
+
+    private static class RemovableToken extends Pkcs12SignatureToken {
+        private boolean removed = false;
+
+        public RemovableToken(String keystore, char[] password) throws IOException {
+            super(keystore, new KeyStore.PasswordProtection(password));
+        }
+
+        @Override
+        public SignatureValue sign(ToBeSigned toBeSigned, DigestAlgorithm digestAlgorithm, DSSPrivateKeyEntry keyEntry) {
+            if (removed)
+                throw new DSSException("Unable to sign", new ProviderException("Token has been removed"));
+
+            return super.sign(toBeSigned, digestAlgorithm, keyEntry);
+        }
+    }
+}
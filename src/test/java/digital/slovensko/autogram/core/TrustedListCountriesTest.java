@@ -0,0 +1,54 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.spi.x509.KeyStoreCertificateSource;
+
+public class TrustedListCountriesTest {
+    @Test
+    public void testOnlyAllowedCountriesAreLoaded() {
+        var countries = new TrustedListCountries(List.of("SK", "CZ"), 8);
+
+        assertTrue(countries.needsLoading(Set.of("SK", "DE")));
+        assertFalse(countries.needsLoading(Set.of("DE")));
+
+        countries.load(Set.of("SK", "DE"));
+
+        assertEquals(List.of("SK"), countries.getLoadedSorted());
+        assertFalse(countries.needsLoading(Set.of("SK", "DE")));
+        assertTrue(countries.needsLoading(Set.of("CZ")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedCountryIsEvicted() {
+        var countries = new TrustedListCountries(List.of("SK", "CZ", "AT", "PL"), 2);
+
+        countries.load(Set.of("SK"));
+        countries.load(Set.of("CZ"));
+        countries.needsLoading(Set.of("SK"));
+        countries.load(Set.of("AT"));
+
+        assertEquals(List.of("AT", "SK"), countries.getLoadedSorted());
+        assertTrue(countries.getLoaded().contains("SK"));
+        assertFalse(countries.getLoaded().contains("CZ"));
+    }
+
+    @Test
+    public void testCountriesOfCertificatesUseTrustedListCodes() {
+        var keystore = new KeyStoreCertificateSource(SignatureValidator.class.getResourceAsStream("lotlKeyStore.p12"),
+                "PKCS12", "dss-password");
+
+        var found = TrustedListCountries.getCountries(keystore.getCertificates());
+
+        assertFalse(found.isEmpty());
+        assertFalse(found.contains("GR"));
+        assertFalse(found.contains("GB"));
+    }
+}
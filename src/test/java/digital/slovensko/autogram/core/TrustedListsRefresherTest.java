@@ -0,0 +1,159 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class TrustedListsRefresherTest {
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-01T12:00:00Z"));
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    @Test
+    public void testFailedRefreshIsRetriedWithGrowingDelay() {
+        var failing = new AtomicBoolean(true);
+        var refresher = new TrustedListsRefresher(online -> {
+            if (failing.get())
+                throw new IllegalStateException("LOTL is not available");
+
+            return new TrustedListsRefresher.Result(1, 0);
+        }, clock);
+
+        var delays = new ArrayList<Duration>();
+        for (var i = 0; i < 4; i++) {
+            refresher.refreshNow();
+            delays.add(refresher.getNextDelay());
+            now.set(now.get().plus(TrustedListsRefresher.MIN_MANUAL_INTERVAL));
+        }
+
+        assertEquals(Duration.ofMinutes(5), delays.get(0));
+        assertEquals(Duration.ofMinutes(10), delays.get(1));
+        assertEquals(Duration.ofMinutes(40), delays.get(3));
+        assertEquals(4, refresher.getMetrics().failures());
+        assertEquals("LOTL is not available", refresher.getMetrics().lastError());
+        assertNull(refresher.getMetrics().lastSuccess());
+
+        failing.set(false);
+        var metrics = refresher.refreshNow();
+
+        assertEquals(TrustedListsRefresher.INTERVAL, refresher.getNextDelay());
+        assertEquals(0, metrics.consecutiveFailures());
+        assertEquals(4, metrics.failures());
+        assertEquals(5, metrics.refreshes());
+        assertEquals(1, metrics.lastChangedTLs());
+        assertNull(metrics.lastError());
+    }
+
+    @Test
+    public void testRetryDelayDoesNotExceedInterval() {
+        var refresher = new TrustedListsRefresher(online -> {
+            throw new IllegalStateException();
+        }, clock);
+
+        for (var i = 0; i < 20; i++) {
+            refresher.refreshNow();
+            now.set(now.get().plus(TrustedListsRefresher.MIN_MANUAL_INTERVAL));
+        }
+
+        assertEquals(TrustedListsRefresher.INTERVAL, refresher.getNextDelay());
+    }
+
+    @Test
+    public void testManualRefreshesAreCoalesced() {
+        var runs = new ArrayList<Boolean>();
+        var refresher = new TrustedListsRefresher(online -> {
+            runs.add(online);
+            return new TrustedListsRefresher.Result(0, 0);
+        }, clock);
+
+        refresher.refreshNow();
+        now.set(now.get().plusSeconds(30));
+        refresher.refreshNow();
+
+        assertEquals(1, runs.size());
+        assertEquals(true, runs.get(0));
+
+        now.set(now.get().plus(TrustedListsRefresher.MIN_MANUAL_INTERVAL));
+        refresher.refreshNow();
+
+        assertEquals(2, runs.size());
+    }
+
+    @Test
+    public void testRepeatedFailuresDoNotBypassThrottling() {
+        var runs = new AtomicInteger();
+        var refresher = new TrustedListsRefresher(online -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("LOTL is not available");
+        }, clock);
+
+        for (var i = 0; i < 10; i++) {
+            refresher.refreshNow();
+            now.set(now.get().plusSeconds(5));
+        }
+
+        assertEquals(1, runs.get());
+
+        now.set(now.get().plus(TrustedListsRefresher.MIN_MANUAL_INTERVAL));
+        refresher.refreshNow();
+
+        assertEquals(2, runs.get());
+        assertEquals(2, refresher.getMetrics().consecutiveFailures());
+    }
+
+    @Test
+    public void testBackgroundRefreshDoesNotBlockCaller() throws Exception {
+        var release = new CountDownLatch(1);
+        var runs = new AtomicInteger();
+        var refresher = new TrustedListsRefresher(online -> {
+            runs.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new TrustedListsRefresher.Result(1, 0);
+        }, clock);
+
+        var refresh = refresher.refreshInBackground();
+        var sameRefresh = refresher.refreshInBackground();
+
+        assertFalse(refresh.isDone());
+        assertSame(refresh, sameRefresh);
+
+        release.countDown();
+
+        assertEquals(1, refresh.get(10, TimeUnit.SECONDS).lastChangedTLs());
+        assertEquals(1, runs.get());
+        assertFalse(refresher.isRefreshing());
+    }
+}
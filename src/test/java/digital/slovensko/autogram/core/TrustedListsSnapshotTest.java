@@ -0,0 +1,111 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eu.europa.esig.dss.spi.tsl.TLValidationJobSummary;
+import eu.europa.esig.dss.spi.tsl.TrustProperties;
+import eu.europa.esig.dss.spi.tsl.TrustServiceStatusAndInformationExtensions;
+import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.spi.tsl.builder.TrustServiceProviderBuilder;
+import eu.europa.esig.dss.spi.util.TimeDependentValues;
+import eu.europa.esig.dss.spi.x509.KeyStoreCertificateSource;
+
+public class TrustedListsSnapshotTest {
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes();
+    private static final List<String> COUNTRIES = List.of("SK", "CZ");
+    private static final TrustedListCountries ALLOWED = new TrustedListCountries(List.of("SK", "CZ", "AT"), 8);
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private TrustedListsCertificateSource source;
+
+    @BeforeEach
+    public void createSource() {
+        file = directory.resolve("snapshot.bin");
+
+        var keystore = new KeyStoreCertificateSource(SignatureValidator.class.getResourceAsStream("lotlKeyStore.p12"),
+                "PKCS12", "dss-password");
+        var certificate = keystore.getCertificates().get(0);
+
+        var provider = new TrustServiceProviderBuilder().setNames(Map.of("EN", List.of("Test TSP"))).build();
+        var status = new TrustServiceStatusAndInformationExtensions.TrustServiceStatusAndInformationExtensionsBuilder()
+                .setStatus("http://uri.etsi.org/TrstSvc/TrustedList/Svcstatus/granted")
+                .setStartDate(new Date(0)).build();
+
+        source = new TrustedListsCertificateSource();
+        source.setSummary(new TLValidationJobSummary(List.of(), List.of()));
+        source.setTrustPropertiesByCertificates(Map.of(certificate,
+                List.of(new TrustProperties(certificate.getDSSId(), provider, new TimeDependentValues<>(List.of(status))))));
+    }
+
+    @Test
+    public void testStoredSnapshotIsLoaded() {
+        new TrustedListsSnapshot(file, KEY).save(source, COUNTRIES);
+
+        var content = new TrustedListsSnapshot(file, KEY).load(ALLOWED);
+
+        assertNotNull(content);
+        assertEquals(List.of("CZ", "SK"), content.tlCountries());
+        var loaded = content.source();
+        assertEquals(1, loaded.getNumberOfCertificates());
+        var certificate = loaded.getCertificates().get(0);
+        assertTrue(loaded.isTrusted(certificate));
+        assertEquals("Test TSP", loaded.getTrustServices(certificate).get(0).getTrustServiceProvider().getNames()
+                .get("EN").get(0));
+    }
+
+    @Test
+    public void testTamperedSnapshotIsIgnored() throws Exception {
+        new TrustedListsSnapshot(file, KEY).save(source, COUNTRIES);
+        var content = Files.readAllBytes(file);
+        content[content.length / 2] ^= 1;
+        Files.write(file, content);
+
+        assertNull(new TrustedListsSnapshot(file, KEY).load(ALLOWED));
+    }
+
+    @Test
+    public void testSnapshotWithDifferentKeyIsIgnored() {
+        new TrustedListsSnapshot(file, KEY).save(source, COUNTRIES);
+
+        assertNull(new TrustedListsSnapshot(file, "another key of thirty two bytes!".getBytes()).load(ALLOWED));
+    }
+
+    @Test
+    public void testSnapshotWithCountriesNoLongerAllowedIsIgnored() {
+        new TrustedListsSnapshot(file, KEY).save(source, COUNTRIES);
+
+        assertNull(new TrustedListsSnapshot(file, KEY).load(new TrustedListCountries(List.of("SK"), 8)));
+    }
+
+    @Test
+    public void testOldSnapshotIsIgnored() {
+        new TrustedListsSnapshot(file, KEY).save(source, COUNTRIES);
+
+        var later = Clock.fixed(Instant.now().plus(TrustedListsSnapshot.MAX_AGE).plusSeconds(60), ZoneOffset.UTC);
+        assertNull(new TrustedListsSnapshot(file, KEY, later).load(ALLOWED));
+    }
+
+    @Test
+    public void testMissingSnapshotIsIgnored() {
+        assertNull(new TrustedListsSnapshot(file, KEY).load(ALLOWED));
+    }
+}
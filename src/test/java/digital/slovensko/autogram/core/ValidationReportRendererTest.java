@@ -0,0 +1,71 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+import digital.slovensko.autogram.util.XMLUtils;
+import eu.europa.esig.dss.model.FileDocument;
+
+public class ValidationReportRendererTest {
+    @Test
+    public void testReportIsRenderedIntoTemplate() throws Exception {
+        var file = new File(Objects.requireNonNull(
+                ValidationReportRendererTest.class.getResource("/digital/slovensko/autogram/sample_signed.pdf")).getFile());
+        var reports = SignatureValidator.getInstance().validate(new FileDocument(file));
+        var signatureId = reports.getSimpleReport().getFirstSignatureId();
+
+        var html = ValidationReportRenderer.getInstance().toHTML(reports);
+
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.stripTrailing().endsWith("</body>"));
+        assertTrue(html.contains(signatureId));
+        assertFalse(html.contains("{{content}}"));
+        assertEquals(html, ValidationReportRenderer.getInstance().toHTML(reports));
+    }
+
+    @Test
+    public void testReportIsSameAsTrimmedStringTransformation() throws Exception {
+        var file = new File(Objects.requireNonNull(
+                ValidationReportRendererTest.class.getResource("/digital/slovensko/autogram/sample_signed.pdf")).getFile());
+        var reports = SignatureValidator.getInstance().validate(new FileDocument(file));
+
+        var document = XMLUtils.getSecureDocumentBuilder()
+                .parse(new InputSource(new StringReader(reports.getXmlSimpleReport())));
+        var output = new StringWriter();
+        XMLUtils.getSecureTransformerFactory()
+                .newTransformer(new StreamSource(SignatureValidator.class.getResourceAsStream("simple-report-bootstrap4.xslt")))
+                .transform(new DOMSource(document), new StreamResult(output));
+        var template = new String(SignatureValidator.class.getResourceAsStream("simple-report-template.html").readAllBytes(),
+                StandardCharsets.UTF_8);
+
+        assertEquals(template.replace("{{content}}", output.toString().trim()),
+                ValidationReportRenderer.getInstance().toHTML(reports));
+    }
+
+    @Test
+    public void testTransformedContentIsTrimmedAcrossWrites() throws Exception {
+        var output = new ByteArrayOutputStream();
+        try (var trimming = new ValidationReportRenderer.TrimmingOutputStream(output)) {
+            for (var chunk : List.of("\n  ", " <div>", "á \n", " </div>", "\r\n", " \n"))
+                trimming.write(chunk.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals("<div>á \n </div>", output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import digital.slovensko.autogram.core.ValidationResultCache.Key;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.detailedreport.jaxb.XmlDetailedReport;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class ValidationResultCacheTest {
+    private static Reports newReports() {
+        return new Reports(new XmlDiagnosticData(), new XmlDetailedReport(), new XmlSimpleReport(), null);
+    }
+
+    private static Key key(String digest, long version) {
+        return new Key(ValidationProfile.FULL, digest, null, version);
+    }
+
+    @Test
+    public void testSameDocumentIsValidatedOnce() {
+        var cache = new ValidationResultCache(4);
+
+        var first = cache.get(key("a", 1), ValidationResultCacheTest::newReports);
+        var second = cache.get(key("a", 1), ValidationResultCacheTest::newReports);
+
+        assertSame(first, second);
+        assertEquals(new ValidationResultCache.Metrics(1, 1, 1), cache.getMetrics());
+    }
+
+    @Test
+    public void testOtherTrustedSourcesVersionIsValidatedAgain() {
+        var cache = new ValidationResultCache(4);
+
+        var first = cache.get(key("a", 1), ValidationResultCacheTest::newReports);
+        var second = cache.get(key("a", 2), ValidationResultCacheTest::newReports);
+
+        assertNotSame(first, second);
+        assertEquals(2, cache.getMetrics().misses());
+    }
+
+    @Test
+    public void testInvalidateDropsReports() {
+        var cache = new ValidationResultCache(4);
+
+        var first = cache.get(key("a", 1), ValidationResultCacheTest::newReports);
+        cache.invalidate();
+
+        assertNotSame(first, cache.get(key("a", 1), ValidationResultCacheTest::newReports));
+    }
+
+    @Test
+    public void testReportsIndependentOfTrustedSourcesAreKeptOnInvalidation() {
+        var cache = new ValidationResultCache(4);
+
+        var structure = cache.get(key("a", 0), ValidationResultCacheTest::newReports);
+        cache.invalidate();
+
+        assertSame(structure, cache.get(key("a", 0), ValidationResultCacheTest::newReports));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedReportsAreEvicted() {
+        var cache = new ValidationResultCache(2);
+
+        var a = cache.get(key("a", 1), ValidationResultCacheTest::newReports);
+        cache.get(key("b", 1), ValidationResultCacheTest::newReports);
+        cache.get(key("a", 1), ValidationResultCacheTest::newReports);
+        cache.get(key("c", 1), ValidationResultCacheTest::newReports);
+
+        assertEquals(2, cache.getMetrics().size());
+        assertSame(a, cache.get(key("a", 1), ValidationResultCacheTest::newReports));
+        assertEquals(3, cache.getMetrics().misses());
+        cache.get(key("b", 1), ValidationResultCacheTest::newReports);
+        assertEquals(4, cache.getMetrics().misses());
+    }
+
+    @Test
+    public void testOldReportsAreValidatedAgain() {
+        var now = new AtomicReference<>(Instant.parse("2024-01-01T00:00:00Z"));
+        var clock = new Clock() {
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+        };
+        var cache = new ValidationResultCache(4, clock);
+
+        var first = cache.get(key("a", 1), ValidationResultCacheTest::newReports);
+        now.set(now.get().plus(ValidationResultCache.MAX_AGE).plusSeconds(1));
+
+        assertNotSame(first, cache.get(key("a", 1), ValidationResultCacheTest::newReports));
+    }
+}
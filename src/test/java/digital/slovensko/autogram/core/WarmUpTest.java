@@ -0,0 +1,32 @@
+package digital.slovensko.autogram.core;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class WarmUpTest {
+    @Test
+    public void testAllWarmUpDocumentsAreSignedAndValidated() {
+        assertDoesNotThrow(WarmUp::warmUp);
+    }
+
+    @Test
+    public void testWarmUpRunsOnGivenExecutorAndReportsDuration() throws Exception {
+        var result = new CompletableFuture<Duration>();
+        var thread = new CompletableFuture<String>();
+
+        WarmUp.runInBackground(runnable -> new Thread(() -> {
+            thread.complete(Thread.currentThread().getName());
+            runnable.run();
+        }, "autogram-warm-up").start(), result::complete);
+
+        assertTrue(result.get(60, TimeUnit.SECONDS).toMillis() > 0);
+        assertEquals("autogram-warm-up", thread.get());
+    }
+}
@@ -0,0 +1,223 @@
+package digital.slovensko.autogram.core.revocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.service.http.commons.CommonsDataLoader;
+
+public class CachingAIASourceTest {
+    @TempDir
+    Path cacheDirectory;
+
+    private HttpServer server;
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private volatile long responseDelayMillis = 0;
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.now());
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+    private KeyPair caKeys;
+    private CertificateToken caCertificate;
+
+    @BeforeEach
+    public void startAIAServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                var path = exchange.getRequestURI().getPath();
+                requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+                Thread.sleep(responseDelayMillis);
+
+                var body = responses.get(path);
+                exchange.sendResponseHeaders(body == null ? 404 : 200, body == null ? -1 : body.length);
+                if (body != null)
+                    exchange.getResponseBody().write(body);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        caKeys = generator.generateKeyPair();
+        caCertificate = createCertificate("CN=Test CA", null);
+        responses.put("/ca.crt", caCertificate.getEncoded());
+    }
+
+    @AfterEach
+    public void stopAIAServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testIssuerIsDownloadedOnceForAllCertificates() throws Exception {
+        var source = createSource();
+
+        Set<CertificateToken> first = source.getCertificatesByAIA(createCertificate("CN=First", url("/ca.crt")));
+        Set<CertificateToken> second = source.getCertificatesByAIA(createCertificate("CN=Second", url("/ca.crt")));
+
+        assertEquals(Set.of(caCertificate), first);
+        assertSame(first.iterator().next(), second.iterator().next());
+        assertEquals(1, requests.get("/ca.crt").get());
+    }
+
+    @Test
+    public void testFailedURLIsNotAskedAgainUntilRetryDelay() throws Exception {
+        var source = createSource();
+        var certificate = createCertificate("CN=First", url("/missing.crt"));
+
+        assertTrue(source.getCertificatesByAIA(certificate).isEmpty());
+        assertTrue(source.getCertificatesByAIA(certificate).isEmpty());
+        assertEquals(1, requests.get("/missing.crt").get());
+
+        now.set(now.get().plus(CachingAIASource.FAILURE_RETRY_DELAY));
+        source.getCertificatesByAIA(certificate);
+        assertEquals(2, requests.get("/missing.crt").get());
+    }
+
+    @Test
+    public void testOldCertificatesAreUsedWhenURLFails() throws Exception {
+        var source = createSource();
+        var certificate = createCertificate("CN=First", url("/ca.crt"));
+        source.getCertificatesByAIA(certificate);
+
+        responses.remove("/ca.crt");
+        now.set(now.get().plus(CachingAIASource.MAX_AGE));
+
+        assertEquals(Set.of(caCertificate), source.getCertificatesByAIA(certificate));
+        assertEquals(Set.of(caCertificate), source.getCertificatesByAIA(certificate));
+        assertEquals(2, requests.get("/ca.crt").get());
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneDownload() throws Exception {
+        responseDelayMillis = 300;
+        var source = createSource();
+        var certificate = createCertificate("CN=First", url("/ca.crt"));
+
+        var executor = Executors.newFixedThreadPool(8);
+        var tasks = new ArrayList<Callable<Set<CertificateToken>>>();
+        for (int i = 0; i < 8; i++)
+            tasks.add(() -> source.getCertificatesByAIA(certificate));
+
+        for (var result : executor.invokeAll(tasks))
+            assertEquals(Set.of(caCertificate), result.get());
+
+        executor.shutdown();
+        assertEquals(1, requests.get("/ca.crt").get());
+        assertEquals(1, source.getMetrics().downloaded());
+    }
+
+    @Test
+    public void testCachedCertificatesAreServedFromDiskInOfflineMode() throws Exception {
+        var certificate = createCertificate("CN=First", url("/ca.crt"));
+        createSource().getCertificatesByAIA(certificate);
+
+        var offlineSource = createSource();
+        offlineSource.setOfflineOnly(true);
+        now.set(now.get().plus(CachingAIASource.MAX_AGE.multipliedBy(2)));
+
+        assertEquals(Set.of(caCertificate), offlineSource.getCertificatesByAIA(certificate));
+        assertTrue(offlineSource.getCertificatesByAIA(createCertificate("CN=Second", url("/other.crt"))).isEmpty());
+        assertEquals(1, requests.get("/ca.crt").get());
+        assertEquals(null, requests.get("/other.crt"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedURLsAreDroppedFromMemory() throws Exception {
+        responses.put("/other.crt", caCertificate.getEncoded());
+        var source = new CachingAIASource(new CommonsDataLoader(), cacheDirectory, clock, 1);
+        var first = createCertificate("CN=First", url("/ca.crt"));
+        var second = createCertificate("CN=Second", url("/other.crt"));
+
+        source.getCertificatesByAIA(first);
+        source.getCertificatesByAIA(second);
+        try (var files = Files.list(cacheDirectory)) {
+            for (var file : files.toList())
+                Files.delete(file);
+        }
+
+        assertEquals(Set.of(caCertificate), source.getCertificatesByAIA(second));
+        assertEquals(Set.of(caCertificate), source.getCertificatesByAIA(first));
+        assertEquals(1, requests.get("/other.crt").get());
+        assertEquals(2, requests.get("/ca.crt").get());
+    }
+
+    private CachingAIASource createSource() {
+        return new CachingAIASource(new CommonsDataLoader(), cacheDirectory, clock);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private CertificateToken createCertificate(String subject, String issuerUrl) throws Exception {
+        var builder = new JcaX509v3CertificateBuilder(new X500Name("CN=Test CA"), BigInteger.valueOf(System.nanoTime()),
+                Date.from(Instant.now().minus(Duration.ofDays(1))), Date.from(Instant.now().plus(Duration.ofDays(1))),
+                new X500Name(subject), caKeys.getPublic());
+
+        if (issuerUrl != null) {
+            var caIssuers = new AccessDescription(AccessDescription.id_ad_caIssuers,
+                    new GeneralName(GeneralName.uniformResourceIdentifier, issuerUrl));
+            builder.addExtension(Extension.authorityInfoAccess, false, new AuthorityInformationAccess(caIssuers));
+        }
+
+        var holder = builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()));
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(holder));
+    }
+}
@@ -0,0 +1,300 @@
+package digital.slovensko.autogram.core.revocation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.RespID;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import eu.europa.esig.dss.enumerations.CertificateStatus;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.exception.DSSExternalResourceException;
+import eu.europa.esig.dss.spi.x509.revocation.crl.CRLToken;
+
+public class RevocationCacheTest {
+    @TempDir
+    Path cacheDirectory;
+
+    private HttpServer server;
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private volatile long responseDelayMillis = 0;
+    private KeyPair caKeys;
+    private X509Certificate caCertificate;
+
+    @BeforeEach
+    public void startRevocationServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                var path = exchange.getRequestURI().getPath();
+                requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(responseDelayMillis);
+
+                var body = responses.get(path);
+                exchange.sendResponseHeaders(body == null ? 404 : 200, body == null ? -1 : body.length);
+                if (body != null)
+                    exchange.getResponseBody().write(body);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        caKeys = generator.generateKeyPair();
+        caCertificate = createCertificate("CN=Test CA", caKeys, null);
+    }
+
+    @AfterEach
+    public void stopRevocationServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCRLIsDownloadedOnceUntilNextUpdate() throws Exception {
+        responses.put("/ca.crl", createCRL(Instant.now().plus(Duration.ofHours(1))));
+        var loader = CachingDataLoader.forCRL(new RevocationCache(cacheDirectory));
+
+        assertArrayEquals(responses.get("/ca.crl"), loader.get(url("/ca.crl")));
+        assertArrayEquals(responses.get("/ca.crl"), loader.get(url("/ca.crl")));
+
+        assertEquals(1, requests.get("/ca.crl").get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDataAreDroppedFromMemory() throws Exception {
+        responses.put("/first.crl", createCRL(Instant.now().plus(Duration.ofHours(1))));
+        responses.put("/second.crl", createCRL(Instant.now().plus(Duration.ofHours(1))));
+        var maxInMemoryBytes = responses.get("/first.crl").length;
+        var loader = CachingDataLoader.forCRL(new RevocationCache(cacheDirectory, Clock.systemUTC(), maxInMemoryBytes));
+
+        loader.get(url("/first.crl"));
+        loader.get(url("/second.crl"));
+        try (var files = Files.list(cacheDirectory)) {
+            for (var file : files.toList())
+                Files.delete(file);
+        }
+
+        assertArrayEquals(responses.get("/second.crl"), loader.get(url("/second.crl")));
+        assertArrayEquals(responses.get("/first.crl"), loader.get(url("/first.crl")));
+
+        assertEquals(1, requests.get("/second.crl").get());
+        assertEquals(2, requests.get("/first.crl").get());
+    }
+
+    @Test
+    public void testExpiredCRLIsDownloadedAgain() throws Exception {
+        responses.put("/ca.crl", createCRL(Instant.now().minus(Duration.ofMinutes(1))));
+        var loader = CachingDataLoader.forCRL(new RevocationCache(cacheDirectory));
+
+        loader.get(url("/ca.crl"));
+        loader.get(url("/ca.crl"));
+
+        assertEquals(2, requests.get("/ca.crl").get());
+    }
+
+    @Test
+    public void testValidityIsParsedFromCachedDataAgain() throws Exception {
+        responses.put("/ca.crl", createCRL(Instant.now().minus(Duration.ofMinutes(1))));
+        CachingDataLoader.forCRL(new RevocationCache(cacheDirectory)).get(url("/ca.crl"));
+
+        // header of the previous file format claiming the expired CRL is fresh for a day
+        try (var files = Files.list(cacheDirectory)) {
+            for (var file : files.toList()) {
+                var forged = new ByteArrayOutputStream();
+                try (var data = new DataOutputStream(forged)) {
+                    data.writeLong(Instant.now().toEpochMilli());
+                    data.writeLong(Instant.now().plus(Duration.ofDays(1)).toEpochMilli());
+                    data.write(Files.readAllBytes(file));
+                }
+                Files.write(file, forged.toByteArray());
+            }
+        }
+
+        CachingDataLoader.forCRL(new RevocationCache(cacheDirectory)).get(url("/ca.crl"));
+
+        assertEquals(2, requests.get("/ca.crl").get());
+    }
+
+    @Test
+    public void testCacheDirectoryIsAccessibleOnlyByOwner() throws Exception {
+        assumeTrue(Files.getFileStore(cacheDirectory).supportsFileAttributeView("posix"));
+        responses.put("/ca.crl", createCRL(Instant.now().plus(Duration.ofHours(1))));
+        var directory = cacheDirectory.resolve("revocation");
+        Files.createDirectory(directory);
+        Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        CachingDataLoader.forCRL(new RevocationCache(directory)).get(url("/ca.crl"));
+
+        assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(directory));
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneDownload() throws Exception {
+        responses.put("/ca.crl", createCRL(Instant.now().plus(Duration.ofHours(1))));
+        responseDelayMillis = 300;
+        var cache = new RevocationCache(cacheDirectory);
+        var loader = CachingDataLoader.forCRL(cache);
+
+        var executor = Executors.newFixedThreadPool(8);
+        var tasks = new ArrayList<Callable<byte[]>>();
+        for (int i = 0; i < 8; i++)
+            tasks.add(() -> loader.get(url("/ca.crl")));
+
+        for (var result : executor.invokeAll(tasks))
+            assertArrayEquals(responses.get("/ca.crl"), result.get());
+
+        executor.shutdown();
+        assertEquals(1, requests.get("/ca.crl").get());
+        assertEquals(1, cache.getMetrics().downloaded());
+    }
+
+    @Test
+    public void testCachedDataAreServedFromDiskInOfflineMode() throws Exception {
+        responses.put("/ca.crl", createCRL(Instant.now().minus(Duration.ofMinutes(1))));
+        CachingDataLoader.forCRL(new RevocationCache(cacheDirectory)).get(url("/ca.crl"));
+
+        var offlineCache = new RevocationCache(cacheDirectory);
+        offlineCache.setOfflineOnly(true);
+        var loader = CachingDataLoader.forCRL(offlineCache);
+
+        assertArrayEquals(responses.get("/ca.crl"), loader.get(url("/ca.crl")));
+        assertThrows(DSSExternalResourceException.class, () -> loader.get(url("/unknown.crl")));
+        assertEquals(1, requests.get("/ca.crl").get());
+        assertEquals(null, requests.get("/unknown.crl"));
+    }
+
+    @Test
+    public void testOCSPResponseIsCachedPerRequest() throws Exception {
+        responses.put("/ocsp", createOCSPResponse(Instant.now().plus(Duration.ofHours(1))));
+        var loader = CachingDataLoader.forOCSP(new RevocationCache(cacheDirectory));
+
+        loader.post(url("/ocsp"), new byte[] { 1 });
+        loader.post(url("/ocsp"), new byte[] { 1 });
+        loader.post(url("/ocsp"), new byte[] { 2 });
+
+        assertEquals(2, requests.get("/ocsp").get());
+    }
+
+    @Test
+    public void testUnsuccessfulOCSPResponseIsNotCached() throws Exception {
+        responses.put("/ocsp", new OCSPRespBuilder().build(OCSPRespBuilder.TRY_LATER, null).getEncoded());
+        var loader = CachingDataLoader.forOCSP(new RevocationCache(cacheDirectory));
+
+        loader.post(url("/ocsp"), new byte[] { 1 });
+        loader.post(url("/ocsp"), new byte[] { 1 });
+
+        assertEquals(2, requests.get("/ocsp").get());
+    }
+
+    @Test
+    public void testParsedCRLIsReusedForOtherCertificates() throws Exception {
+        responses.put("/ca.crl", createCRL(Instant.now().plus(Duration.ofHours(1))));
+        var crlSource = new CachingCRLSource(CachingDataLoader.forCRL(new RevocationCache(cacheDirectory)));
+
+        var issuer = new CertificateToken(caCertificate);
+        var first = new CertificateToken(createCertificate("CN=First", caKeys, url("/ca.crl")));
+        var second = new CertificateToken(createCertificate("CN=Second", caKeys, url("/ca.crl")));
+
+        CRLToken firstToken = crlSource.getRevocationToken(first, issuer);
+        CRLToken secondToken = crlSource.getRevocationToken(second, issuer);
+
+        assertNotNull(firstToken);
+        assertSame(firstToken.getCrlValidity(), secondToken.getCrlValidity());
+        assertEquals(CertificateStatus.GOOD, secondToken.getStatus());
+        assertEquals(1, requests.get("/ca.crl").get());
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private byte[] createCRL(Instant nextUpdate) throws Exception {
+        var builder = new X509v2CRLBuilder(new X500Name(caCertificate.getSubjectX500Principal().getName()),
+                Date.from(Instant.now().minus(Duration.ofHours(1))));
+        builder.setNextUpdate(Date.from(nextUpdate));
+        return builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate())).getEncoded();
+    }
+
+    private byte[] createOCSPResponse(Instant nextUpdate) throws Exception {
+        var digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+        var certificateHolder = new JcaX509CertificateHolder(caCertificate);
+        var certificateId = new CertificateID(digestCalculatorProvider.get(CertificateID.HASH_SHA1), certificateHolder,
+                BigInteger.ONE);
+
+        var builder = new BasicOCSPRespBuilder(new RespID(certificateHolder.getSubject()));
+        builder.addResponse(certificateId, org.bouncycastle.cert.ocsp.CertificateStatus.GOOD,
+                Date.from(Instant.now().minus(Duration.ofMinutes(5))), Date.from(nextUpdate));
+        var basicResponse = builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(caKeys.getPrivate()), null,
+                new Date());
+
+        return new OCSPRespBuilder().build(OCSPResp.SUCCESSFUL, basicResponse).getEncoded();
+    }
+
+    private X509Certificate createCertificate(String subject, KeyPair issuerKeys, String crlUrl) throws Exception {
+        var builder = new JcaX509v3CertificateBuilder(new X500Name("CN=Test CA"), BigInteger.valueOf(System.nanoTime()),
+                Date.from(Instant.now().minus(Duration.ofDays(1))), Date.from(Instant.now().plus(Duration.ofDays(1))),
+                new X500Name(subject), issuerKeys.getPublic());
+
+        if (crlUrl != null) {
+            var name = new GeneralNames(new GeneralName(GeneralName.uniformResourceIdentifier, crlUrl));
+            var distributionPoint = new DistributionPoint(new DistributionPointName(name), null, null);
+            builder.addExtension(Extension.cRLDistributionPoints, false, new CRLDistPoint(new DistributionPoint[] { distributionPoint }));
+        }
+
+        var holder = builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(issuerKeys.getPrivate()));
+        return new JcaX509CertificateConverter().getCertificate(holder);
+    }
+}
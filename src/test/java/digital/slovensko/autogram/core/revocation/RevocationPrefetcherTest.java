@@ -0,0 +1,137 @@
+package digital.slovensko.autogram.core.revocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.model.x509.revocation.ocsp.OCSP;
+import eu.europa.esig.dss.spi.x509.CommonTrustedCertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.MultipleRevocationSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+
+public class RevocationPrefetcherTest {
+    private final Map<String, AtomicInteger> ocspLookups = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> crlLookups = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private CertificateToken ca;
+    private CertificateToken first;
+    private CertificateToken second;
+
+    @BeforeEach
+    public void createCertificates() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        var caKeys = generator.generateKeyPair();
+        ca = createCertificate("CN=Test CA", caKeys, caKeys);
+        first = createCertificate("CN=First", generator.generateKeyPair(), caKeys);
+        second = createCertificate("CN=Second", generator.generateKeyPair(), caKeys);
+    }
+
+    @AfterEach
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSharedCertificatesAreLookedUpOnce() {
+        prefetcher().prefetch(List.of(first, ca, second, first, ca), List.of(), verifier(true));
+
+        assertEquals(1, ocspLookups.get("CN=First").get());
+        assertEquals(1, ocspLookups.get("CN=Second").get());
+        assertEquals(2, ocspLookups.size());
+    }
+
+    @Test
+    public void testCRLIsUsedWithoutOCSPResponse() {
+        prefetcher().prefetch(List.of(first, second), List.of(), verifier(true));
+
+        assertEquals(1, crlLookups.get("CN=First").get());
+        assertEquals(1, crlLookups.get("CN=Second").get());
+    }
+
+    @Test
+    public void testUntrustedChainsAreSkipped() {
+        prefetcher().prefetch(List.of(first, ca, second), List.of(), verifier(false));
+
+        assertTrue(ocspLookups.isEmpty());
+        assertTrue(crlLookups.isEmpty());
+    }
+
+    @Test
+    public void testCertificatesWithEmbeddedRevocationDataAreSkipped() {
+        MultipleRevocationSource<OCSP> embedded = (certificate, issuer) -> certificate.equals(first)
+                ? List.of(mock(OCSPToken.class)) : List.of();
+
+        prefetcher().prefetch(List.of(first, ca, second), List.of(embedded), verifier(true));
+
+        assertNull(ocspLookups.get("CN=First"));
+        assertNull(crlLookups.get("CN=First"));
+        assertEquals(1, ocspLookups.get("CN=Second").get());
+    }
+
+    @Test
+    public void testIssuerIsFoundAmongTrustedCertificates() {
+        var issuers = RevocationPrefetcher.getIssuersToCheck(List.of(first), verifier(true).getTrustedCertSources(),
+                false);
+
+        assertEquals(Map.of(first, ca), issuers);
+    }
+
+    private RevocationPrefetcher prefetcher() {
+        return new RevocationPrefetcher((certificate, issuer) -> {
+            ocspLookups.computeIfAbsent(certificate.getSubject().getRFC2253(), s -> new AtomicInteger()).incrementAndGet();
+            if (certificate.equals(second))
+                throw new IllegalStateException("OCSP responder not available");
+
+            return null;
+        }, (certificate, issuer) -> {
+            crlLookups.computeIfAbsent(certificate.getSubject().getRFC2253(), s -> new AtomicInteger()).incrementAndGet();
+            return null;
+        }, executor);
+    }
+
+    private CommonCertificateVerifier verifier(boolean trustCA) {
+        var trusted = new CommonTrustedCertificateSource();
+        if (trustCA)
+            trusted.addCertificate(ca);
+
+        var verifier = new CommonCertificateVerifier();
+        verifier.setTrustedCertSources(trusted);
+        return verifier;
+    }
+
+    private static CertificateToken createCertificate(String subject, KeyPair keys, KeyPair issuerKeys) throws Exception {
+        var builder = new JcaX509v3CertificateBuilder(new X500Name("CN=Test CA"), BigInteger.valueOf(System.nanoTime()),
+                Date.from(Instant.now().minus(Duration.ofDays(1))), Date.from(Instant.now().plus(Duration.ofDays(1))),
+                new X500Name(subject), keys.getPublic());
+
+        var holder = builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(issuerKeys.getPrivate()));
+        return new CertificateToken(new JcaX509CertificateConverter().getCertificate(holder));
+    }
+}
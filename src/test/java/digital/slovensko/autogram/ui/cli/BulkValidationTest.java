@@ -0,0 +1,71 @@
+package digital.slovensko.autogram.ui.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eu.europa.esig.dss.enumerations.Indication;
+
+public class BulkValidationTest {
+    @TempDir
+    Path source;
+
+    @Test
+    public void testValidatesAllFilesInTree() throws Exception {
+        copy("sample_signed.pdf", "sample_signed.pdf");
+        copy("sample.txt", "nested/sample.txt");
+
+        var output = new StringWriter();
+        new BulkValidation(ValidationResultFormat.CSV, 2, new PrintStream(new ByteArrayOutputStream()))
+                .run(source, Set.of(), output, true);
+
+        var lines = output.toString().lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals("file,signatures,indication,subIndication,signedBy,error", lines.get(0));
+        assertTrue(lines.contains(Path.of("nested", "sample.txt") + ",0," + Indication.NO_SIGNATURE_FOUND + ",,,"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("sample_signed.pdf,1,")));
+    }
+
+    @Test
+    public void testSkipsAlreadyValidatedFiles() throws Exception {
+        copy("sample_signed.pdf", "sample_signed.pdf");
+        copy("sample.txt", "sample.txt");
+
+        var format = ValidationResultFormat.JSON;
+        var output = new StringWriter();
+        new BulkValidation(format, 1, new PrintStream(new ByteArrayOutputStream()))
+                .run(source, Set.of("sample_signed.pdf"), output, true);
+
+        var files = output.toString().lines().map(format::parseFile).collect(Collectors.toSet());
+        assertEquals(Set.of("sample.txt"), files);
+    }
+
+    @Test
+    public void testFileNameCanBeReadBackFromResult() {
+        var result = ValidationResult.withoutSignatures("dir/a \"quoted\", name.pdf");
+
+        for (var format : ValidationResultFormat.values())
+            assertEquals(result.file(), format.parseFile(format.format(result)));
+    }
+
+    private void copy(String resource, String target) throws IOException {
+        var path = source.resolve(target);
+        Files.createDirectories(path.getParent());
+        try (var stream = Objects.requireNonNull(
+                BulkValidationTest.class.getResourceAsStream("/digital/slovensko/autogram/" + resource))) {
+            Files.copy(stream, path);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package digital.slovensko.autogram.ui.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CliUITest {
+    @Test
+    public void testWorkCallbacksRunOnTheCallingThreadByDefault() {
+        var ui = new CliUI();
+        var thread = new Thread[1];
+
+        ui.onWorkThreadDo(() -> thread[0] = Thread.currentThread());
+
+        assertSame(Thread.currentThread(), thread[0]);
+    }
+
+    @Test
+    public void testAllWorkCallbacksFinishOnWorkersEvenWhenSomeFail() {
+        var ui = new CliUI();
+        var finished = new AtomicInteger();
+        var threads = ConcurrentHashMap.<Thread>newKeySet();
+
+        ui.startWorkers(2);
+        for (int i = 0; i < 20; i++) {
+            var fails = i % 5 == 0;
+            ui.onWorkThreadDo(() -> {
+                if (fails)
+                    throw new IllegalStateException("failed");
+
+                // nested callbacks run inline, waiting for a free worker from a worker would never end
+                var outer = Thread.currentThread();
+                ui.onWorkThreadDo(() -> assertSame(outer, Thread.currentThread()));
+                threads.add(outer);
+                finished.incrementAndGet();
+            });
+        }
+        ui.awaitWorkers();
+
+        assertEquals(16, finished.get());
+        threads.forEach(thread -> assertNotSame(Thread.currentThread(), thread));
+    }
+}
@@ -0,0 +1,99 @@
+package digital.slovensko.autogram.ui.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import eu.europa.esig.dss.model.FileDocument;
+
+public class SigningJournalTest {
+    @TempDir
+    Path directory;
+
+    private Path source;
+    private Path journal;
+
+    @BeforeEach
+    public void createSource() throws IOException {
+        source = Files.createDirectories(directory.resolve("source"));
+        Files.createDirectories(source.resolve("a"));
+        Files.writeString(source.resolve("one.pdf"), "one");
+        Files.writeString(source.resolve("a/two.pdf"), "two");
+        journal = SigningJournal.getPath(directory.resolve("source_signed"));
+    }
+
+    @Test
+    public void testJournalIsSavedNextToTargetDirectory() {
+        assertEquals(directory.resolve("source_signed.journal"), journal);
+    }
+
+    @Test
+    public void testSignedFilesAreSkippedAndFailedOnesRetriedAfterResume() throws IOException {
+        writeJournal();
+
+        var resumed = new SigningJournal(source, SigningJournal.read(journal), Writer.nullWriter());
+
+        assertTrue(resumed.isSigned(source.resolve("one.pdf")));
+        assertFalse(resumed.hasFailed(source.resolve("one.pdf")));
+        assertFalse(resumed.isSigned(source.resolve("a/two.pdf")));
+        assertTrue(resumed.hasFailed(source.resolve("a/two.pdf")));
+    }
+
+    @Test
+    public void testChangedFileIsSignedAgain() throws IOException {
+        writeJournal();
+        Files.writeString(source.resolve("one.pdf"), "changed");
+
+        var resumed = new SigningJournal(source, SigningJournal.read(journal), Writer.nullWriter());
+
+        assertFalse(resumed.isSigned(source.resolve("one.pdf")));
+    }
+
+    @Test
+    public void testFilesSignedByRunningSigningAreStillListed() {
+        var signingJournal = new SigningJournal(source, Map.of(), Writer.nullWriter());
+
+        signingJournal.signed(source.resolve("one.pdf"), directory.resolve("source_signed/one_signed.pdf"),
+                new FileDocument(source.resolve("one.pdf").toFile()));
+
+        assertFalse(signingJournal.isSigned(source.resolve("one.pdf")));
+    }
+
+    @Test
+    public void testLastLineOfFileWinsAndIncompleteLineIsIgnored() throws IOException {
+        writeJournal();
+        try (var output = Files.newBufferedWriter(journal, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            new SigningJournal(source, Map.of(), output).signed(source.resolve("a/two.pdf"),
+                    directory.resolve("source_signed/a/two_signed.pdf"), new FileDocument(source.resolve("a/two.pdf").toFile()));
+            output.write("{\"source\":\"one.p");
+        }
+
+        var entries = SigningJournal.read(journal);
+
+        assertEquals(2, entries.size());
+        assertEquals(SigningJournal.Status.SIGNED, entries.get(Path.of("a", "two.pdf").toString()).status());
+        // SHA-256 of "one"
+        assertEquals("7692c3ad3540bb803c020b3aee66cd8887123234ea0c6e7143c0add73ff431ed", entries.get("one.pdf").digest());
+    }
+
+    private void writeJournal() throws IOException {
+        try (var output = Files.newBufferedWriter(journal, StandardCharsets.UTF_8)) {
+            var signingJournal = new SigningJournal(source, Map.of(), output);
+            signingJournal.signed(source.resolve("one.pdf"), directory.resolve("source_signed/one_signed.pdf"),
+                    new FileDocument(source.resolve("one.pdf").toFile()));
+            signingJournal.failed(source.resolve("a/two.pdf"), new IllegalStateException("card removed"));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package digital.slovensko.autogram.ui.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SourceFilesTest {
+    @TempDir
+    Path source;
+
+    @BeforeEach
+    public void createTree() throws IOException {
+        Files.createDirectories(source.resolve("a/b"));
+        Files.createDirectories(source.resolve("signed"));
+        Files.writeString(source.resolve("top.pdf"), "top");
+        Files.writeString(source.resolve("a/one.pdf"), "one");
+        Files.writeString(source.resolve("a/b/two.pdf"), "two");
+        Files.writeString(source.resolve("signed/top_signed.pdf"), "signed");
+    }
+
+    @Test
+    public void testOnlyFilesDirectlyInSourceAreListedWithoutRecursion() throws IOException {
+        var files = new SourceFiles(source, false, null);
+
+        assertEquals(Set.of("top.pdf"), list(files));
+        assertEquals(1, files.count());
+    }
+
+    @Test
+    public void testTargetInsideSourceIsSkippedWithRecursion() throws IOException {
+        var files = new SourceFiles(source, true, source.resolve("signed"));
+
+        assertEquals(Set.of("top.pdf", "a/one.pdf", "a/b/two.pdf"), list(files));
+        assertEquals(3, files.count());
+    }
+
+    @Test
+    public void testRelativeDirectoryMirrorsTheSourceTree() {
+        var files = new SourceFiles(source, true, null);
+
+        assertEquals(Path.of(""), files.getRelativeDirectory(source.resolve("top.pdf")));
+        assertEquals(Path.of("a/b"), files.getRelativeDirectory(source.resolve("a/b/two.pdf")));
+    }
+
+    private Set<String> list(SourceFiles files) throws IOException {
+        List<Path> listed = new ArrayList<>();
+        files.forEach(listed::add);
+        return listed.stream().map(file -> source.relativize(file).toString().replace('\\', '/'))
+                .collect(Collectors.toSet());
+    }
+}